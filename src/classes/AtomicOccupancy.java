@@ -0,0 +1,330 @@
+package classes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class implements a day-occupancy bitmap that many threads can claim
+ * days in without a lock.
+ * The near-term days, starting from the block of 32 days that holds today
+ * (see Date.getClock()), are kept in a ring of AtomicLongArray words. The low
+ * 32 bits of a word mark the days of one block and the high 32 bits tag the
+ * block the word holds, so a word whose block has passed can be taken over
+ * for a later block with the same compare-and-set that claims the days.
+ * The window covers 256 days, which is enough for the 3 month advance limit
+ * plus a week-long booking.
+ * A range is claimed one word at a time with compare-and-set; if any day of
+ * the range is already taken, the words claimed so far are released again.
+ * Bookings that cannot be fully marked (ending before they begin, or reaching
+ * past the window) are remembered, and while there are any the lock-free
+ * claim reports the range as not covered so the caller checks its schedule
+ * instead. The clock is assumed never to go back while bookings are held.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class AtomicOccupancy {
+    private static final int WORDS = 8; //number of words in the ring, a power of two
+    private static final int DAYS_PER_WORD = 32;
+    private static final int WORD_SHIFT = 5; //log2 of DAYS_PER_WORD
+    private static final int SPAN = WORDS * DAYS_PER_WORD; //days covered by the window
+    private static final long DAY_BITS = 0xFFFFFFFFL; //the bits of a word that mark days
+    private static final int TAG_SHIFT = 32; //position of the block tag in a word
+
+    // Define the results of claim() and test()
+    public static final int CLAIMED = 0;
+    public static final int TAKEN = 1;
+    public static final int NOT_COVERED = 2;
+
+    private final AtomicLongArray words;
+    private final HashSet<Booking> unmarked; //bookings with days the words do not hold, guarded by the caller's lock
+    private volatile int unmarkedCount; //size of unmarked, read without the lock
+
+    /**
+     * Default constructor to create an empty AtomicOccupancy object.
+     */
+    public AtomicOccupancy() {
+        this.words = new AtomicLongArray(WORDS);
+        this.unmarked = new HashSet<>();
+        this.unmarkedCount = 0;
+    }
+
+    /**
+     * Finds the first day of the window, the first day of today's block.
+     *
+     * @return the epoch day the window starts on
+     */
+    private static int windowStart() {
+        return (Date.getClock().today() >> WORD_SHIFT) << WORD_SHIFT;
+    }
+
+    /**
+     * Checks whether a range lies inside the window and no booking is held
+     * outside of the words, so the words alone can answer for the range.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     * @return true if the words answer for the whole range, false otherwise
+     */
+    private boolean covers(int from, int to) {
+        int start = windowStart();
+        return this.unmarkedCount == 0 && from <= to && from >= start && to < start + SPAN;
+    }
+
+    /**
+     * Checks, without claiming anything, whether every day of a range is free.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     * @return CLAIMED if every day is free, TAKEN if a day is taken, or
+     *         NOT_COVERED if the words cannot tell
+     */
+    public int test(int from, int to) {
+        if (!covers(from, to)) {
+            return NOT_COVERED;
+        }
+        for (int block = from >> WORD_SHIFT; block <= to >> WORD_SHIFT; block++) {
+            long word = this.words.get(slot(block));
+            int tag = tag(word);
+            if (tag > block) {
+                return NOT_COVERED;
+            }
+            if (tag == block && (word & mask(block, from, to)) != 0) {
+                return TAKEN;
+            }
+        }
+        return CLAIMED;
+    }
+
+    /**
+     * Claims every day of a range without a lock. Either every day is
+     * claimed, or none is.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     * @return CLAIMED if the days are now held by the caller, TAKEN if a day
+     *         was already taken, or NOT_COVERED if the words cannot tell
+     */
+    public int claim(int from, int to) {
+        if (!covers(from, to)) {
+            return NOT_COVERED;
+        }
+        int result = claimBlocks(from, to);
+        if (result == NOT_COVERED) {
+            release(from, to);
+        }
+        return result;
+    }
+
+    /**
+     * Claims the days of a range that fall inside the window, for a caller
+     * that has already checked the rest of the range against its schedule.
+     * Days before the window have passed and are skipped.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     * @return true if the days were claimed, false if a day was already taken
+     */
+    public boolean claimInWindow(int from, int to) {
+        int start = windowStart();
+        int first = Math.max(from, start);
+        int last = Math.min(to, start + SPAN - 1);
+        return first > last || claimBlocks(first, last) != TAKEN;
+    }
+
+    /**
+     * Claims the days of a range one word at a time, releasing the words
+     * already claimed if a day is taken. A word holding a block that is
+     * not in the window any more is taken over for the block that is needed.
+     * A word already holding a later block is skipped.
+     *
+     * @param first first epoch day to claim
+     * @param last last epoch day to claim
+     * @return CLAIMED if the days are held, TAKEN if one was taken, or
+     *         NOT_COVERED if a word held a later block
+     */
+    private int claimBlocks(int first, int last) {
+        int result = CLAIMED;
+        for (int block = first >> WORD_SHIFT; block <= last >> WORD_SHIFT; block++) {
+            int slot = slot(block);
+            long bits = mask(block, first, last);
+            while (true) {
+                long word = this.words.get(slot);
+                int tag = tag(word);
+                if (tag > block) {
+                    result = NOT_COVERED;
+                    break;
+                }
+                long days = tag == block ? word & DAY_BITS : 0;
+                if ((days & bits) != 0) {
+                    release(first, (block << WORD_SHIFT) - 1);
+                    return TAKEN;
+                }
+                if (this.words.compareAndSet(slot, word, ((long) block << TAG_SHIFT) | days | bits)) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the days of a range inside the window, whether or not they are
+     * already taken, as when bookings are loaded without being checked.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     */
+    private void mark(int from, int to) {
+        int start = windowStart();
+        int first = Math.max(from, start);
+        int last = Math.min(to, start + SPAN - 1);
+        for (int block = first >> WORD_SHIFT; first <= last && block <= last >> WORD_SHIFT; block++) {
+            int slot = slot(block);
+            long bits = mask(block, first, last);
+            while (true) {
+                long word = this.words.get(slot);
+                int tag = tag(word);
+                if (tag > block) {
+                    break;
+                }
+                long days = tag == block ? word & DAY_BITS : 0;
+                if (this.words.compareAndSet(slot, word, ((long) block << TAG_SHIFT) | days | bits)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the days of a range, in the words that still hold its blocks.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     */
+    public void release(int from, int to) {
+        for (int block = from >> WORD_SHIFT; from <= to && block <= to >> WORD_SHIFT; block++) {
+            clearBits(block, mask(block, from, to));
+        }
+    }
+
+    /**
+     * Clears days of one block, if a word still holds that block.
+     *
+     * @param block epoch day divided by the days per word
+     * @param bits the days to clear
+     */
+    private void clearBits(int block, long bits) {
+        int slot = slot(block);
+        while (true) {
+            long word = this.words.get(slot);
+            if (tag(word) != block || this.words.compareAndSet(slot, word, word & ~bits)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a booking whose days were claimed with claimInWindow(), or
+     * marks the days of a booking added without being checked, and
+     * remembers it if some of its days are not held by the words.
+     * The caller holds the lock guarding the owner of this calendar.
+     *
+     * @param booking the booking to record
+     * @param claimed true if its days in the window are already claimed
+     */
+    public void add(Booking booking, boolean claimed) {
+        int from = booking.getBegin().toEpochDay();
+        int to = booking.getEnd().toEpochDay();
+        if (!claimed) {
+            mark(from, to);
+        }
+        if (to < from || to >= windowStart() + SPAN) {
+            this.unmarked.add(booking);
+            this.unmarkedCount = this.unmarked.size();
+        }
+    }
+
+    /**
+     * Releases the days of a booking that has been removed, except for days
+     * that another booking still holds.
+     * The caller holds the lock guarding the owner of this calendar.
+     *
+     * @param booking the booking that was removed
+     * @param others the bookings left, to find the ones overlapping it
+     */
+    public void remove(Booking booking, IntervalTree others) {
+        if (this.unmarked.remove(booking)) {
+            this.unmarkedCount = this.unmarked.size();
+        }
+        int start = windowStart();
+        int from = Math.max(booking.getBegin().toEpochDay(), start);
+        int to = Math.min(booking.getEnd().toEpochDay(), start + SPAN - 1);
+        if (to < from) {
+            return;
+        }
+        ArrayList<Booking> overlapping = new ArrayList<>();
+        others.forEachOverlap(booking.getBegin(), booking.getEnd(), overlapping::add);
+        for (int block = from >> WORD_SHIFT; block <= to >> WORD_SHIFT; block++) {
+            long bits = mask(block, from, to);
+            for (Booking other : overlapping) {
+                int otherFrom = other.getBegin().toEpochDay();
+                int otherTo = other.getEnd().toEpochDay();
+                if (otherFrom <= otherTo && otherFrom >> WORD_SHIFT <= block && otherTo >> WORD_SHIFT >= block) {
+                    bits &= ~mask(block, otherFrom, otherTo);
+                }
+            }
+            if (bits != 0) {
+                clearBits(block, bits);
+            }
+        }
+    }
+
+    /**
+     * Finds the ring slot holding a block of days.
+     *
+     * @param block epoch day divided by the days per word
+     * @return index of the word in the ring
+     */
+    private static int slot(int block) {
+        return block & (WORDS - 1);
+    }
+
+    /**
+     * Reads the block a word holds.
+     *
+     * @param word the word
+     * @return the block in the tag bits of the word
+     */
+    private static int tag(long word) {
+        return (int) (word >> TAG_SHIFT);
+    }
+
+    /**
+     * Builds the bit mask for the days of a range that fall in one block.
+     *
+     * @param block epoch day divided by the days per word
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     * @return the mask with the bits of those days set
+     */
+    private static long mask(int block, int from, int to) {
+        int first = Math.max(from, block << WORD_SHIFT) & (DAYS_PER_WORD - 1);
+        int last = Math.min(to, (block << WORD_SHIFT) + DAYS_PER_WORD - 1) & (DAYS_PER_WORD - 1);
+        return (DAY_BITS << first) & (DAY_BITS >>> (DAYS_PER_WORD - 1 - last));
+    }
+
+    public static void main(String[] args) {
+        Date.setClock(DateClock.fixed(new Date(10, 1, 2025)));
+        int day = new Date(10, 1, 2025).toEpochDay();
+        AtomicOccupancy occupancy = new AtomicOccupancy();
+
+        System.out.println(occupancy.claim(day, day + 2) == CLAIMED); // true
+        System.out.println(occupancy.claim(day + 2, day + 4) == TAKEN); // true
+        System.out.println(occupancy.claim(day + 3, day + 40) == CLAIMED); // true (spans two words)
+        System.out.println(occupancy.test(day + 41, day + 45) == CLAIMED); // true
+        occupancy.release(day + 3, day + 40);
+        System.out.println(occupancy.test(day + 3, day + 40) == CLAIMED); // true
+        System.out.println(occupancy.claim(day + 300, day + 301) == NOT_COVERED); // true
+        System.out.println(occupancy.claimInWindow(day - 5, day - 3)); // true (days have passed)
+    }
+}
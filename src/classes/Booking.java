@@ -1,5 +1,4 @@
 package classes;
-import java.util.Calendar;
 
 /**
  * This class implements the Booking object.
@@ -86,57 +85,35 @@ public class Booking {
         return this.vehicle;
     }
 
+    // Define the constant for how many months ahead a booking may begin
+    private static final int MAX_MONTHS_IN_ADVANCE = 3;
+
     /**
      * Checks if the booking's start date is more than 3 months in the future
-     * from the current date.
+     * from the current date, as given by the clock installed in Date.
      * This helper method enforces the rule that bookings cannot be made over 3
      * months in advance.
      *
-     * @return true if booking is within 3 months from today, false otherwise
+     * @return true if booking begins more than 3 months from today, false otherwise
      */
     public boolean isTooFarInAdvance(){
-        Calendar today = Calendar.getInstance();
-
-        Calendar inThreeMonths = (Calendar) today.clone();
-        inThreeMonths.add(Calendar.MONTH, 3);
-
-        Calendar bookingCal = Calendar.getInstance();
-        bookingCal.set(this.begin.getYear(), this.begin.getMonth(), this.begin.getDay());
-
-        return bookingCal.after(inThreeMonths);
+        int inThreeMonths = Date.plusMonths(Date.getClock().today(), MAX_MONTHS_IN_ADVANCE);
+        return this.begin.toEpochDay() > inThreeMonths;
     }
 
-    // Define a constant for the conversion of 7 days to milliseconds
-    private static final long SEVEN_DAYS_MILLIS = 7L * 24 * 60 * 60 * 1000;
+    // Define the constant for the number of days in a week
+    private static final int DAYS_PER_WEEK = 7;
 
     /**
-     * Checks if the booking's end date is more than 7 days after its start
+     * Checks if the booking's end date is 7 or more days after its start
      * date.
      * This helper method enforces the rule that bookings cannot last over 7
      * days from start date to end date.
      *
-     * @return true if booking under 7 days in time interval, false otherwise.
+     * @return true if booking spans 7 or more days after its start, false otherwise.
      */
     public boolean isTooLong(){
-        Calendar beginCal = Calendar.getInstance();
-        beginCal.set(this.begin.getYear(), this.begin.getMonth() - 1, this.begin.getDay());
-        beginCal.set(Calendar.HOUR_OF_DAY, 0);
-        beginCal.set(Calendar.MINUTE, 0);
-        beginCal.set(Calendar.SECOND, 0);
-        beginCal.set(Calendar.MILLISECOND, 0);
-        long beginTimeMillis = beginCal.getTimeInMillis();
-
-        Calendar endCal = Calendar.getInstance();
-        endCal.set(this.end.getYear(), this.end.getMonth() - 1, this.end.getDay());
-        endCal.set(Calendar.HOUR_OF_DAY, 0);
-        endCal.set(Calendar.MINUTE, 0);
-        endCal.set(Calendar.SECOND, 0);
-        endCal.set(Calendar.MILLISECOND, 0);
-        long endTimeMillis = endCal.getTimeInMillis();
-
-        long duration = endTimeMillis - beginTimeMillis;
-
-        return duration >= SEVEN_DAYS_MILLIS;
+        return (long) this.end.toEpochDay() - this.begin.toEpochDay() >= DAYS_PER_WEEK;
     }
 
     /**
@@ -160,6 +137,16 @@ public class Booking {
                 vehicle.equals(booking.vehicle);
     }
 
+    /**
+     * Returns a hash code for this Booking, consistent with equals().
+     *
+     * @return the hash code built from the vehicle, beginning date, and ending date
+     */
+    @Override
+    public int hashCode() {
+        return (vehicle.hashCode() * 31 + begin.hashCode()) * 31 + end.hashCode();
+    }
+
     /**
      * Returns a string representation of this Booking.
      * Format: plate:make:obtained [mileage:value] [beginning M/D/YYYY ending M/D/YYYY:EMPLOYEE]
@@ -168,10 +155,20 @@ public class Booking {
      */
     @Override
     public String toString(){
-        return String.format("%s:%s:%s [mileage:%s] [beginning %s ending %s:%s]",
-                this.vehicle.getPlate(), this.vehicle.getMake(),
-                this.vehicle.getObtained(), this.vehicle.getMileage(),
-                this.begin, this.end, this.employee);
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the string representation of this Booking to a buffer, in the
+     * same format as toString(), without building intermediate strings.
+     *
+     * @param out the buffer to append to
+     * @return the buffer, so more can be appended to it
+     */
+    public StringBuilder appendTo(StringBuilder out){
+        this.vehicle.appendTo(out).append(" [beginning ");
+        this.begin.appendTo(out).append(" ending ");
+        return this.end.appendTo(out).append(':').append(this.employee).append(']');
     }
 
     public static void main(String[] args) {
@@ -0,0 +1,235 @@
+package classes;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counts and times the commands run by a Frontend, by command type and
+ * outcome, so the latency of a booking is never mixed with the latency of a
+ * rejected one. Each pair keeps a count, a total, a maximum, and a
+ * LatencyHistogram made the first time the pair is seen.
+ * Recording is safe from any thread and does not allocate once a pair has
+ * been seen. The metrics are printed by the PM command and can be read over
+ * JMX once registered.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class CommandMetrics implements CommandMetricsMBean {
+    // Define constants for the number of pairs of command type and outcome
+    private static final CommandType[] TYPES = CommandType.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final int PAIRS = TYPES.length * OUTCOMES.length;
+
+    // Define constant for the name the metrics are registered under
+    public static final String OBJECT_NAME = "classes:type=CommandMetrics";
+
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final LongAdder[] counts; //commands run, per pair
+    private final LongAdder[] totals; //total latency in nanoseconds, per pair
+    private final AtomicLong[] maxima; //largest latency in nanoseconds, per pair
+    private final AtomicReferenceArray<LatencyHistogram> histograms; //per pair, null until the pair is seen
+
+    /**
+     * Creates metrics with nothing recorded.
+     */
+    public CommandMetrics() {
+        this.counts = new LongAdder[PAIRS];
+        this.totals = new LongAdder[PAIRS];
+        this.maxima = new AtomicLong[PAIRS];
+        this.histograms = new AtomicReferenceArray<>(PAIRS);
+        for (int i = 0; i < PAIRS; i++) {
+            counts[i] = new LongAdder();
+            totals[i] = new LongAdder();
+            maxima[i] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Finds the index of a pair of command type and outcome.
+     *
+     * @param type the type of command
+     * @param outcome how the command ended
+     * @return the index of the pair in the arrays of metrics
+     */
+    private static int pair(CommandType type, Outcome outcome) {
+        return type.ordinal() * OUTCOMES.length + outcome.ordinal();
+    }
+
+    /**
+     * Records one command.
+     *
+     * @param type the type of command
+     * @param outcome how the command ended
+     * @param nanos how long the command took, in nanoseconds
+     */
+    public void record(CommandType type, Outcome outcome, long nanos) {
+        int i = pair(type, outcome);
+        counts[i].increment();
+        totals[i].add(nanos);
+        AtomicLong max = maxima[i];
+        long seen = max.get();
+        while (nanos > seen && !max.compareAndSet(seen, nanos)) {
+            seen = max.get();
+        }
+        LatencyHistogram histogram = histograms.get(i);
+        if (histogram == null) {
+            histograms.compareAndSet(i, null, new LatencyHistogram());
+            histogram = histograms.get(i);
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * Appends the metrics to an output buffer: one line per pair that has
+     * been seen, in the order of the command types and then the outcomes.
+     * Appends a message instead if no command has been recorded.
+     *
+     * @param out the buffer the report is appended to
+     */
+    public void print(StringBuilder out) {
+        if (getCommandCount() == 0) {
+            out.append("There is no command metric.").append(NEWLINE);
+            return;
+        }
+
+        out.append("*Command metrics, latencies in nanoseconds.").append(NEWLINE);
+        appendSummary(out, null);
+        out.append("*end of list.").append(NEWLINE);
+    }
+
+    /**
+     * Appends one line for every pair that has been seen. A percentile is
+     * reported as the top of its histogram bucket, but never above the maximum.
+     *
+     * @param out the buffer the lines are appended to
+     * @param lines if not null, each line is also added here, without its line ending
+     */
+    private void appendSummary(StringBuilder out, List<String> lines) {
+        long[] buckets = new long[LatencyHistogram.BUCKETS];
+        for (CommandType type : TYPES) {
+            for (Outcome outcome : OUTCOMES) {
+                int i = pair(type, outcome);
+                long count = counts[i].sum();
+                LatencyHistogram histogram = histograms.get(i);
+                if (count == 0 || histogram == null) {
+                    continue;
+                }
+                Arrays.fill(buckets, 0);
+                histogram.addTo(buckets);
+                long max = maxima[i].get();
+                int start = out.length();
+                out.append(type).append(' ').append(outcome)
+                        .append(" count: ").append(count)
+                        .append(" mean: ").append(totals[i].sum() / count)
+                        .append(" p50: ").append(Math.min(LatencyHistogram.valueAt(buckets, 50), max))
+                        .append(" p99: ").append(Math.min(LatencyHistogram.valueAt(buckets, 99), max))
+                        .append(" p999: ").append(Math.min(LatencyHistogram.valueAt(buckets, 99.9), max))
+                        .append(" max: ").append(max);
+                if (lines != null) {
+                    lines.add(out.substring(start));
+                }
+                out.append(NEWLINE);
+            }
+        }
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server, under OBJECT_NAME.
+     *
+     * @throws JMException if the metrics cannot be registered
+     */
+    public void register() throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    @Override
+    public long getCommandCount() {
+        long count = 0;
+        for (LongAdder adder : counts) {
+            count += adder.sum();
+        }
+        return count;
+    }
+
+    @Override
+    public long getRejectionCount() {
+        long count = 0;
+        for (CommandType type : TYPES) {
+            for (Outcome outcome : OUTCOMES) {
+                if (outcome != Outcome.OK && outcome != Outcome.ERROR) {
+                    count += counts[pair(type, outcome)].sum();
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public long getErrorCount() {
+        long count = 0;
+        for (CommandType type : TYPES) {
+            count += counts[pair(type, Outcome.ERROR)].sum();
+        }
+        return count;
+    }
+
+    @Override
+    public String[] getSummary() {
+        List<String> lines = new ArrayList<>();
+        appendSummary(new StringBuilder(), lines);
+        return lines.toArray(new String[0]);
+    }
+
+    @Override
+    public long getLatencyPercentile(String command, double percentile) {
+        LatencyHistogram histogram = histograms.get(pair(CommandType.valueOf(command.toUpperCase()), Outcome.OK));
+        if (histogram == null) {
+            return 0;
+        }
+        long[] buckets = new long[LatencyHistogram.BUCKETS];
+        histogram.addTo(buckets);
+        return LatencyHistogram.valueAt(buckets, percentile);
+    }
+
+    /**
+     * Clears every count and latency. Commands recorded while clearing may
+     * be partly cleared.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < PAIRS; i++) {
+            counts[i].reset();
+            totals[i].reset();
+            maxima[i].set(0);
+            LatencyHistogram histogram = histograms.get(i);
+            if (histogram != null) {
+                histogram.reset();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        CommandMetrics metrics = new CommandMetrics();
+        StringBuilder out = new StringBuilder();
+        metrics.print(out); // There is no command metric.
+        for (int i = 1; i <= 100; i++) {
+            metrics.record(CommandType.B, Outcome.OK, i * 100);
+        }
+        metrics.record(CommandType.B, Outcome.NOT_AVAILABLE, 50);
+        metrics.record(CommandType.PF, Outcome.OK, 12345);
+        metrics.print(out);
+        System.out.print(out);
+        System.out.println(metrics.getCommandCount() + " " + metrics.getRejectionCount()); // 102 1
+        System.out.println(metrics.getLatencyPercentile("b", 50)); // 5119, within 6% of 5000
+        System.out.println(metrics.getSummary().length); // 3
+        metrics.reset();
+        System.out.println(metrics.getCommandCount()); // 0
+    }
+}
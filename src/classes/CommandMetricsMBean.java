@@ -0,0 +1,46 @@
+package classes;
+
+/**
+ * The management interface of CommandMetrics, so its counts and latencies
+ * can be read over JMX, with jconsole for example, while the system runs.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public interface CommandMetricsMBean {
+    /**
+     * Getter for the number of commands run.
+     * @return the number of commands run, whatever their outcome.
+     */
+    long getCommandCount();
+
+    /**
+     * Getter for the number of commands rejected.
+     * @return the number of commands that ended with a rejection message.
+     */
+    long getRejectionCount();
+
+    /**
+     * Getter for the number of commands that failed with an exception.
+     * @return the number of commands whose outcome was ERROR.
+     */
+    long getErrorCount();
+
+    /**
+     * Getter for the report printed by the PM command.
+     * @return one line per command type and outcome that has been seen.
+     */
+    String[] getSummary();
+
+    /**
+     * Finds a latency percentile of the successful commands of one type.
+     * @param command the command type, such as "B" or "PF"
+     * @param percentile the percentile, from 0 to 100
+     * @return the latency in nanoseconds, or 0 if no such command succeeded.
+     */
+    long getLatencyPercentile(String command, double percentile);
+
+    /**
+     * Clears every count and latency.
+     */
+    void reset();
+}
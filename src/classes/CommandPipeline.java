@@ -0,0 +1,270 @@
+package classes;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class runs a file of commands through a Frontend in three stages,
+ * each on its own thread, connected by SpscRingBuffers:
+ * the parser reads and trims lines and splits them into tokens, the
+ * executor (the calling thread) runs them one at a time, in order, against
+ * the Frontend's containers, and the emitter writes each command's responses.
+ * A fixed set of slots, each with its own tokenizer and output buffer, is
+ * passed from stage to stage and back to the parser, so the stages never
+ * share an object at the same time and nothing is allocated per command
+ * beyond the line itself.
+ * Only the executor touches the containers, and the emitter writes slots in
+ * the order they were run, so the output is the same as a serial run.
+ * When the Frontend is journaling, the executor holds executed slots back
+ * until the journal is committed, whenever it runs out of parsed commands or
+ * a group fills up, so no response is written before its record is.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class CommandPipeline {
+    // Define constant for the number of commands that can be in flight, a power of two
+    private static final int CAPACITY = 1024;
+
+    // Define constant for the most commands the executor holds back for one journal commit
+    private static final int GROUP_SIZE = 256;
+
+    // Define constant for the initial size of the emitter's character buffer
+    private static final int CHAR_BUFFER = 1 << 12;
+
+    /**
+     * Private inner class holding one command as it moves through the stages.
+     */
+    private static class Slot {
+        private final CommandTokenizer tokens = new CommandTokenizer();
+        private final StringBuilder out = new StringBuilder();
+        private String request; //trimmed command line
+        private char command; //command letter of the request
+        private boolean isLast; //marks the end of the commands
+    }
+
+    private final Frontend frontend;
+    private final SpscRingBuffer<Slot> parsed; //parser -> executor
+    private final SpscRingBuffer<Slot> executed; //executor -> emitter
+    private final SpscRingBuffer<Slot> free; //emitter -> parser, slots ready for reuse
+    private final AtomicReference<Throwable> failure; //first error in any stage
+    private volatile boolean isStopped; //set once no more commands should be read
+
+    /**
+     * Constructor for a pipeline that runs commands against a Frontend.
+     *
+     * @param frontend the Frontend whose containers the commands change
+     */
+    public CommandPipeline(Frontend frontend) {
+        this.frontend = frontend;
+        this.parsed = new SpscRingBuffer<>(CAPACITY);
+        this.executed = new SpscRingBuffer<>(CAPACITY);
+        this.free = new SpscRingBuffer<>(CAPACITY);
+        this.failure = new AtomicReference<>();
+        for (int i = 0; i < CAPACITY; i++) {
+            this.free.offer(new Slot());
+        }
+    }
+
+    /**
+     * Runs every command from a reader until the end of the input or the
+     * system is terminated, writing the responses to a writer, which is
+     * flushed at the end. If a stage fails, the responses of the commands run
+     * before the failure are still written, and then the failure is thrown.
+     * A pipeline can only be run once.
+     *
+     * @param reader where the commands are read, one per line
+     * @param writer where the responses are written
+     * @throws IOException if the reader or writer fails
+     */
+    public void run(BufferedReader reader, Writer writer) throws IOException {
+        Thread parser = new Thread(() -> parse(reader), "command-parser");
+        Thread emitter = new Thread(() -> emit(writer), "command-emitter");
+        parser.start();
+        emitter.start();
+        execute();
+        try {
+            parser.join();
+            emitter.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for the pipeline");
+        }
+
+        Throwable error = this.failure.get();
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+    }
+
+    /**
+     * The parser stage: reads, trims, and splits lines into free slots until
+     * the end of the input or the pipeline is stopped, then sends the last slot.
+     *
+     * @param reader where the commands are read
+     */
+    private void parse(BufferedReader reader) {
+        try {
+            String line;
+            while (!this.isStopped && (line = reader.readLine()) != null) {
+                String request = line.trim();
+                if (request.isEmpty()) {
+                    continue;
+                }
+                Slot slot = this.free.take();
+                slot.request = request;
+                slot.command = Frontend.commandOf(request);
+                Frontend.tokenize(slot.command, request, slot.tokens);
+                this.parsed.put(slot);
+            }
+        }
+        catch (IOException | RuntimeException | Error e) {
+            fail(e);
+        }
+        finally {
+            Slot last = this.free.take();
+            last.isLast = true;
+            this.parsed.put(last);
+        }
+    }
+
+    /**
+     * The executor stage: runs each command in order and passes its slot to
+     * the emitter, in groups that share a journal commit. Once the system is
+     * terminated or a command fails, the remaining slots are passed on
+     * without being run.
+     */
+    private void execute() {
+        Slot[] waiting = new Slot[GROUP_SIZE];
+        int count = 0;
+        boolean isActive = true;
+        while (true) {
+            Slot slot = this.parsed.poll();
+            if (slot == null) {
+                count = release(waiting, count);
+                slot = this.parsed.take();
+            }
+            if (slot.isLast) {
+                release(waiting, count);
+                this.executed.put(slot);
+                return;
+            }
+            if (isActive && this.failure.get() == null) {
+                try {
+                    isActive = this.frontend.execute(slot.command, slot.request, slot.tokens, slot.out);
+                }
+                catch (RuntimeException | Error e) {
+                    fail(e);
+                }
+                if (!isActive) {
+                    this.isStopped = true;
+                }
+            }
+            waiting[count++] = slot;
+            if (count == waiting.length || this.frontend.isCommitDue()) {
+                count = release(waiting, count);
+            }
+        }
+    }
+
+    /**
+     * Helper method to execute() that commits the journal and passes the
+     * waiting slots to the emitter. If the commit fails, their responses are
+     * dropped, since their changes were not recorded.
+     *
+     * @param waiting the executed slots, in order
+     * @param count the number of waiting slots
+     * @return the number of slots left waiting, always 0
+     */
+    private int release(Slot[] waiting, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        try {
+            this.frontend.commitJournal();
+        }
+        catch (IOException e) {
+            fail(e);
+            for (int i = 0; i < count; i++) {
+                waiting[i].out.setLength(0);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            this.executed.put(waiting[i]);
+            waiting[i] = null;
+        }
+        return 0;
+    }
+
+    /**
+     * The emitter stage: writes each slot's responses in order and returns
+     * the slot to the parser, then flushes the writer after the last slot.
+     * After a write fails, slots are still returned so the other stages can
+     * finish.
+     *
+     * @param writer where the responses are written
+     */
+    private void emit(Writer writer) {
+        char[] chars = new char[CHAR_BUFFER];
+        boolean isWriting = true;
+        while (true) {
+            Slot slot = this.executed.take();
+            if (slot.isLast) {
+                break;
+            }
+            StringBuilder out = slot.out;
+            if (out.length() > 0 && isWriting) {
+                if (out.length() > chars.length) {
+                    chars = new char[Math.max(out.length(), 2 * chars.length)];
+                }
+                out.getChars(0, out.length(), chars, 0);
+                try {
+                    writer.write(chars, 0, out.length());
+                }
+                catch (IOException e) {
+                    fail(e);
+                    isWriting = false;
+                }
+            }
+            out.setLength(0);
+            slot.request = null;
+            this.free.put(slot);
+        }
+        try {
+            if (isWriting) {
+                writer.flush();
+            }
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the first failure in any stage and stops reading commands.
+     *
+     * @param error what went wrong
+     */
+    private void fail(Throwable error) {
+        this.failure.compareAndSet(null, error);
+        this.isStopped = true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Frontend frontend = new Frontend();
+        StringWriter writer = new StringWriter();
+        String commands = "A 123ABC 1/2/2020 ford 5000\nPF\nQ\nPF\n";
+        new CommandPipeline(frontend).run(new BufferedReader(new StringReader(commands)), writer);
+        System.out.print(writer); // the add and print responses, then the termination message
+    }
+}
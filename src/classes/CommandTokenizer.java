@@ -0,0 +1,297 @@
+package classes;
+
+/**
+ * This class splits a command line into tokens and parses them in place.
+ * Tokens are kept as start and end offsets into the line, and numbers,
+ * dates, makes and employees are read straight from those characters, so
+ * no regular expression, array of parts or substring is created for them.
+ * One tokenizer is reused for every command.
+ * Parsing follows the String.split() and Integer.parseInt() calls it
+ * replaces, so malformed input fails with the same exceptions as before.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class CommandTokenizer {
+    private static final int CAPACITY = 8; //initial number of tokens
+    private static final int RADIX = 10;
+    private static final Make[] MAKES = Make.values();
+    private static final Employee[] EMPLOYEES = Employee.values();
+
+    private CharSequence line;
+    private int[] starts; //offset of the first character of each token
+    private int[] ends; //offset just past the last character of each token
+    private int count;
+
+    /**
+     * Default constructor to create a tokenizer with no line.
+     */
+    public CommandTokenizer() {
+        this.line = "";
+        this.starts = new int[CAPACITY];
+        this.ends = new int[CAPACITY];
+        this.count = 0;
+    }
+
+    /**
+     * Splits a line on single spaces, like line.split(" ").
+     * Two spaces in a row give an empty token, and empty tokens at the end
+     * are dropped.
+     *
+     * @param line the command line to split
+     */
+    public void splitOnSpace(CharSequence line) {
+        this.line = line;
+        this.count = 0;
+        int start = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == ' ') {
+                addToken(start, i);
+                start = i + 1;
+            }
+        }
+        finish(start);
+    }
+
+    /**
+     * Splits a line on runs of whitespace, like line.split("\\s+").
+     *
+     * @param line the command line to split
+     */
+    public void splitOnWhitespace(CharSequence line) {
+        this.line = line;
+        this.count = 0;
+        int start = 0;
+        int i = 0;
+        while (i < line.length()) {
+            if (isWhitespace(line.charAt(i))) {
+                addToken(start, i);
+                while (i < line.length() && isWhitespace(line.charAt(i))) {
+                    i++;
+                }
+                start = i;
+            }
+            else {
+                i++;
+            }
+        }
+        finish(start);
+    }
+
+    /**
+     * Helper method for the split methods that adds the last token and drops
+     * empty tokens at the end. A line with no separator is one token, even
+     * when it is empty, as with String.split().
+     *
+     * @param start offset of the first character of the last token
+     */
+    private void finish(int start) {
+        if (this.count == 0) {
+            addToken(0, this.line.length());
+            return;
+        }
+        addToken(start, this.line.length());
+        while (this.count > 0 && this.starts[this.count - 1] == this.ends[this.count - 1]) {
+            this.count--;
+        }
+    }
+
+    /**
+     * Getter for the number of tokens in the line.
+     *
+     * @return the number of tokens
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Copies a token out of the line.
+     *
+     * @param index position of the token
+     * @return the token as a String
+     */
+    public String token(int index) {
+        checkIndex(index);
+        return this.line.subSequence(this.starts[index], this.ends[index]).toString();
+    }
+
+    /**
+     * Parses a token as a decimal int, like Integer.parseInt().
+     *
+     * @param index position of the token
+     * @return the value of the token
+     * @throws NumberFormatException if the token is not a valid int
+     */
+    public int parseInt(int index) {
+        checkIndex(index);
+        return Integer.parseInt(this.line, this.starts[index], this.ends[index], RADIX);
+    }
+
+    /**
+     * Parses a token of the form M/D/YYYY as a Date, like splitting it on "/"
+     * and parsing the first three parts. Parts after the third are ignored.
+     *
+     * @param index position of the token
+     * @return the date in the token, which may not be a valid calendar date
+     * @throws NumberFormatException if a part is not a valid int
+     * @throws ArrayIndexOutOfBoundsException if the token has fewer than three parts
+     */
+    public Date parseDate(int index) {
+        checkIndex(index);
+        int start = this.starts[index];
+        int end = this.ends[index];
+
+        // empty parts at the end are dropped, except when the token is empty
+        int last = end;
+        while (last > start && this.line.charAt(last - 1) == '/') {
+            last--;
+        }
+        if (start == end) {
+            last = end;
+        }
+
+        int monthEnd = fieldEnd(start, last, end, 0);
+        int month = Integer.parseInt(this.line, start, monthEnd, RADIX);
+        int dayEnd = fieldEnd(monthEnd + 1, last, end, 1);
+        int day = Integer.parseInt(this.line, monthEnd + 1, dayEnd, RADIX);
+        int yearEnd = fieldEnd(dayEnd + 1, last, end, 2);
+        int year = Integer.parseInt(this.line, dayEnd + 1, yearEnd, RADIX);
+        return new Date(month, day, year);
+    }
+
+    /**
+     * Helper method to parseDate() that finds where a part of a date ends.
+     *
+     * @param fieldStart offset of the first character of the part
+     * @param last offset past the last part that was not dropped
+     * @param end offset just past the last character of the token
+     * @param field position of the part, used in the exception
+     * @return offset of the "/" after the part, or last if it is the last part
+     * @throws ArrayIndexOutOfBoundsException if the part does not exist
+     */
+    private int fieldEnd(int fieldStart, int last, int end, int field) {
+        if (fieldStart > last || (fieldStart == last && last != end)) {
+            throw new ArrayIndexOutOfBoundsException(field);
+        }
+        int fieldEnd = fieldStart;
+        while (fieldEnd < last && this.line.charAt(fieldEnd) != '/') {
+            fieldEnd++;
+        }
+        return fieldEnd;
+    }
+
+    /**
+     * Parses a token as a Make, ignoring case, like Make.valueOf() on the
+     * upper-cased token.
+     *
+     * @param index position of the token
+     * @return the make named by the token
+     * @throws IllegalArgumentException if no make has that name
+     */
+    public Make parseMake(int index) {
+        for (Make make : MAKES) {
+            if (matches(index, make.name())) {
+                return make;
+            }
+        }
+        throw new IllegalArgumentException("No make " + token(index));
+    }
+
+    /**
+     * Parses a token as an Employee, ignoring case, like Employee.valueOf()
+     * on the upper-cased token.
+     *
+     * @param index position of the token
+     * @return the employee named by the token
+     * @throws IllegalArgumentException if no employee has that name
+     */
+    public Employee parseEmployee(int index) {
+        for (Employee employee : EMPLOYEES) {
+            if (matches(index, employee.name())) {
+                return employee;
+            }
+        }
+        throw new IllegalArgumentException("No employee " + token(index));
+    }
+
+    /**
+     * Checks whether a token, upper-cased, equals an upper-case name.
+     *
+     * @param index position of the token
+     * @param name the upper-case name to compare with
+     * @return true if the token matches the name, false otherwise
+     */
+    private boolean matches(int index, String name) {
+        checkIndex(index);
+        int start = this.starts[index];
+        if (this.ends[index] - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toUpperCase(this.line.charAt(start + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the offsets of a token, growing the offset arrays if needed.
+     *
+     * @param start offset of the first character of the token
+     * @param end offset just past the last character of the token
+     */
+    private void addToken(int start, int end) {
+        if (this.count == this.starts.length) {
+            int[] newStarts = new int[2 * this.count];
+            int[] newEnds = new int[2 * this.count];
+            for (int i = 0; i < this.count; i++) {
+                newStarts[i] = this.starts[i];
+                newEnds[i] = this.ends[i];
+            }
+            this.starts = newStarts;
+            this.ends = newEnds;
+        }
+        this.starts[this.count] = start;
+        this.ends[this.count] = end;
+        this.count++;
+    }
+
+    /**
+     * Checks that a token exists, as indexing the array from split() would.
+     *
+     * @param index position of the token
+     * @throws ArrayIndexOutOfBoundsException if there is no such token
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.count) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+    }
+
+    /**
+     * Checks whether a character is matched by the regular expression \s.
+     *
+     * @param c the character to check
+     * @return true if c is a space, tab, line break, vertical tab, or form feed
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    public static void main(String[] args) {
+        CommandTokenizer tokenizer = new CommandTokenizer();
+
+        tokenizer.splitOnWhitespace("B  11/1/2025\t11/3/2025 123ABC kaur");
+        System.out.println(tokenizer.getCount()); // 5
+        System.out.println(tokenizer.parseDate(1)); // 11/1/2025
+        System.out.println(tokenizer.parseEmployee(4)); // KAUR
+
+        tokenizer.splitOnSpace("A  123ABC");
+        System.out.println(tokenizer.getCount()); // 3 (the double space gives an empty token)
+
+        tokenizer.splitOnSpace("A 123ABC 1/2/2020 ford 5000");
+        System.out.println(tokenizer.parseMake(3)); // FORD
+        System.out.println(tokenizer.parseInt(4)); // 5000
+    }
+}
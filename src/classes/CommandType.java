@@ -0,0 +1,52 @@
+package classes;
+
+/**
+ * Enum for the kinds of command CommandMetrics reports on: one per command
+ * letter, one per print subcommand, and OTHER for anything unrecognized.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public enum CommandType {
+    A, D, B, F, C, R, PF, PR, PD, PT, PM, Q, OTHER;
+
+    /**
+     * Finds the type of a command.
+     *
+     * @param command the command letter of the request
+     * @param request the trimmed, non-empty command line
+     * @return the type of the command, OTHER if it is not recognized
+     */
+    public static CommandType of(char command, String request) {
+        switch (command) {
+            case 'A': return A;
+            case 'D': return D;
+            case 'B': return B;
+            case 'F': return F;
+            case 'C': return C;
+            case 'R': return R;
+            case 'Q': return Q;
+            case 'P':
+                if (request.length() < 2 || request.charAt(0) != 'P') {
+                    return OTHER;
+                }
+                switch (request.charAt(1)) {
+                    case 'F': return PF;
+                    case 'R': return PR;
+                    case 'D': return PD;
+                    case 'T': return PT;
+                    case 'M': return PM;
+                    default: return OTHER;
+                }
+            default: return OTHER;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.out.println(of('A', "A ABC123 1/1/2025 FORD 100")); // A
+        System.out.println(of('P', "PT")); // PT
+        System.out.println(of('P', "PX")); // OTHER
+        System.out.println(of('P', "P")); // OTHER
+        System.out.println(of('P', "pF")); // OTHER, as PF is case sensitive
+        System.out.println(of('Z', "Z")); // OTHER
+    }
+}
@@ -0,0 +1,420 @@
+package classes;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Micro-benchmarks for the core containers and the date and booking checks,
+ * each run at container sizes from 10 to 1,000,000.
+ * Each benchmark is warmed up until the JIT has compiled it, then timed over
+ * several runs; the median run is reported in nanoseconds per operation.
+ * Benchmarks that change a container (add, remove) time filling or emptying
+ * a whole container of the given size, built again for every run outside of
+ * the timing, and report the time per element.
+ * Every result is folded into a sink that is printed at the end, so the JIT
+ * cannot drop the work being measured.
+ * Usage: ContainerBenchmark [filter [sizes]], where filter picks the
+ * benchmarks whose names contain it and sizes is a comma separated list.
+ * The largest sizes need a large heap, such as -Xmx4g.
+ * This is a plain timer run from main(), not a benchmark framework: every
+ * benchmark shares one JVM, so the code compiled for one can slow down the
+ * next, and nothing beyond the sink guards against the JIT. Its numbers are
+ * only a rough guide to how an operation grows with the size of a
+ * container. They are not precise enough to accept or reject a change to a
+ * data structure; a difference seen here needs checking with a proper
+ * benchmark framework run in separate JVMs.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class ContainerBenchmark {
+    // Define constants for the default sizes and the timing of each benchmark
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final long WARMUP_NANOS = 300_000_000L;
+    private static final long RUN_NANOS = 100_000_000L;
+    private static final long BULK_RUN_NANOS = 10_000_000L;
+    private static final int RUNS = 5;
+
+    // Define constants for the data every benchmark is built from
+    private static final Date TODAY = new Date(1, 5, 2026);
+    private static final int KEYS = 1 << 12; //number of lookup keys cycled through, a power of two
+    private static final long SEED = 42;
+
+    private static long sink; //folds in every result so the work cannot be dropped
+
+    /**
+     * One operation of a benchmark, given the number of the call.
+     */
+    private interface Operation {
+        /**
+         * Runs the operation once.
+         * @param i the number of the call, for picking a different key each time
+         * @return any value computed, to be folded into the sink
+         */
+        long run(int i);
+    }
+
+    /**
+     * One run of a benchmark that changes a container: set up outside of the
+     * timing, then the returned operation is timed once.
+     */
+    private interface Trial {
+        /**
+         * Builds what the timed operation needs.
+         * @return the operation to time, which works on every element once
+         */
+        Operation setUp();
+    }
+
+    private final String filter; //only benchmarks whose names contain this are run
+
+    /**
+     * Creates a benchmark runner.
+     *
+     * @param filter only benchmarks whose names contain this are run
+     */
+    private ContainerBenchmark(String filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Times an operation, calling it more times per run until a run takes at
+     * least RUN_NANOS, and prints the median time per call.
+     *
+     * @param name the name of the benchmark
+     * @param size the size of the container the operation works on
+     * @param operation the operation to time
+     */
+    private void measure(String name, int size, Operation operation) {
+        if (!name.contains(filter)) {
+            return;
+        }
+        long calls = 1;
+        long deadline = System.nanoTime() + WARMUP_NANOS;
+        while (true) {
+            if (time(operation, calls) < RUN_NANOS) {
+                calls *= 2;
+            } else if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        double[] perCall = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            perCall[run] = (double) time(operation, calls) / calls;
+        }
+        report(name, size, perCall, calls);
+    }
+
+    /**
+     * Times a number of calls of an operation.
+     *
+     * @param operation the operation to call
+     * @param calls how many times to call it
+     * @return the time taken, in nanoseconds
+     */
+    private static long time(Operation operation, long calls) {
+        long result = 0;
+        long start = System.nanoTime();
+        for (long i = 0; i < calls; i++) {
+            result += operation.run((int) i);
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += result;
+        return elapsed;
+    }
+
+    /**
+     * Times trials that each work on a whole container, and prints the
+     * median time per element. A run is as many trials as it takes for the
+     * timed part to add up to at least BULK_RUN_NANOS.
+     *
+     * @param name the name of the benchmark
+     * @param size the number of elements each trial works on
+     * @param trial the trial to set up and time
+     */
+    private void measureBulk(String name, int size, Trial trial) {
+        if (!name.contains(filter)) {
+            return;
+        }
+        long deadline = System.nanoTime() + WARMUP_NANOS;
+        int trials = 0;
+        while (System.nanoTime() < deadline || trials < 2) {
+            time(trial.setUp(), 1);
+            trials++;
+        }
+        double[] perElement = new double[RUNS];
+        long elements = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long elapsed = 0;
+            elements = 0;
+            while (elapsed < BULK_RUN_NANOS) {
+                elapsed += time(trial.setUp(), 1);
+                elements += size;
+            }
+            perElement[run] = (double) elapsed / elements;
+        }
+        report(name, size, perElement, elements);
+    }
+
+    /**
+     * Prints the median, the fastest, and the slowest of the runs of a benchmark.
+     *
+     * @param name the name of the benchmark
+     * @param size the size it was run at
+     * @param runs the time per operation of each run, sorted in place
+     * @param operations the number of operations in each run
+     */
+    private static void report(String name, int size, double[] runs, long operations) {
+        Arrays.sort(runs);
+        System.out.printf("%-30s %,10d %14.1f ns/op  (min %.1f, max %.1f, %,d ops/run)%n",
+                name, size, runs[RUNS / 2], runs[0], runs[RUNS - 1], operations);
+    }
+
+    /**
+     * Creates the date a number of days after TODAY.
+     *
+     * @param days the number of days after TODAY
+     * @return the date
+     */
+    private static Date dateAfter(int days) {
+        java.time.LocalDate date = java.time.LocalDate.ofEpochDay(TODAY.toEpochDay() + days);
+        return new Date(date.getMonthValue(), date.getDayOfMonth(), date.getYear());
+    }
+
+    /**
+     * Creates the plate of the vehicle with the given number.
+     *
+     * @param n the number of the vehicle
+     * @return its plate
+     */
+    private static String plateOf(int n) {
+        return "P" + n;
+    }
+
+    /**
+     * Creates vehicles of every make, obtained over the last few years.
+     *
+     * @param count the number of vehicles
+     * @return the vehicles, with plates plateOf(0) to plateOf(count - 1)
+     */
+    private static Vehicle[] vehicles(int count) {
+        Make[] makes = Make.values();
+        Date[] obtained = new Date[1000];
+        for (int i = 0; i < obtained.length; i++) {
+            obtained[i] = dateAfter(-i * 2);
+        }
+        Vehicle[] vehicles = new Vehicle[count];
+        for (int i = 0; i < count; i++) {
+            vehicles[i] = new Vehicle(plateOf(i), obtained[i % obtained.length], makes[i % makes.length], i % 100_000);
+        }
+        return vehicles;
+    }
+
+    /**
+     * Creates bookings over the next three months that never overlap for one
+     * vehicle: four bookings per vehicle of one to six days each, made by the
+     * employees in turn.
+     *
+     * @param count the number of bookings
+     * @return the bookings, in the order they were made
+     */
+    private static Booking[] bookings(int count) {
+        Vehicle[] vehicles = vehicles(Math.max(1, count / 4));
+        Employee[] employees = Employee.values();
+        Date[] days = new Date[100];
+        for (int i = 0; i < days.length; i++) {
+            days[i] = dateAfter(i);
+        }
+        Booking[] bookings = new Booking[count];
+        for (int j = 0; j < count; j++) {
+            int vehicle = j % vehicles.length;
+            int begin = (j / vehicles.length) * 20 + vehicle % 7;
+            int length = vehicle % 6;
+            bookings[j] = new Booking(days[begin], days[begin + length], employees[j % employees.length],
+                    vehicles[vehicle]);
+        }
+        return bookings;
+    }
+
+    /**
+     * Creates trips from bookings, with their mileages.
+     *
+     * @param count the number of trips
+     * @return the trips
+     */
+    private static Trip[] trips(int count) {
+        Booking[] bookings = bookings(count);
+        Trip[] trips = new Trip[count];
+        for (int i = 0; i < count; i++) {
+            trips[i] = new Trip(bookings[i], i, i + 100);
+        }
+        return trips;
+    }
+
+    /**
+     * Picks indexes of elements to look up, cycled through by the benchmarks.
+     *
+     * @param size the number of elements to pick from
+     * @return KEYS random indexes below size
+     */
+    private static int[] keys(int size) {
+        Random random = new Random(SEED);
+        int[] keys = new int[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = random.nextInt(size);
+        }
+        return keys;
+    }
+
+    /**
+     * Runs the Fleet benchmarks at one size.
+     *
+     * @param size the number of vehicles in the fleet
+     */
+    private void benchFleet(int size) {
+        Vehicle[] vehicles = vehicles(size);
+        measureBulk("Fleet.add", size, () -> {
+            Fleet fleet = new Fleet();
+            return i -> {
+                for (Vehicle vehicle : vehicles) {
+                    fleet.add(vehicle);
+                }
+                return fleet.contains(vehicles[0]) ? 1 : 0;
+            };
+        });
+
+        Fleet fleet = new Fleet();
+        fleet.addAll(vehicles);
+        int[] keys = keys(size);
+        String[] plates = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            plates[i] = plateOf(keys[i]);
+        }
+        measure("Fleet.searchByPlate", size, i -> fleet.searchByPlate(plates[i & (KEYS - 1)]).getMileage());
+        measure("Fleet.searchByPlate(missing)", size, i -> fleet.searchByPlate("X" + (i & 7)) == null ? 1 : 0);
+
+        StringBuilder out = new StringBuilder();
+        measure("Fleet.printByMake", size, i -> {
+            out.setLength(0);
+            fleet.printByMake(out);
+            return out.length();
+        });
+    }
+
+    /**
+     * Runs the Reservation benchmarks at one size.
+     *
+     * @param size the number of bookings in the reservation
+     */
+    private void benchReservation(int size) {
+        Booking[] bookings = bookings(size);
+        measureBulk("Reservation.add", size, () -> {
+            Reservation reservation = new Reservation();
+            return i -> {
+                for (Booking booking : bookings) {
+                    reservation.add(booking);
+                }
+                return reservation.getSize();
+            };
+        });
+        measureBulk("Reservation.remove", size, () -> {
+            Reservation reservation = new Reservation();
+            reservation.addAll(bookings);
+            return i -> {
+                for (Booking booking : bookings) {
+                    reservation.remove(booking);
+                }
+                return reservation.getSize();
+            };
+        });
+
+        Reservation reservation = new Reservation();
+        reservation.addAll(bookings);
+        int[] keys = keys(size);
+        Booking[] lookups = new Booking[KEYS];
+        Employee[] employees = Employee.values();
+        for (int i = 0; i < KEYS; i++) {
+            Booking booking = bookings[keys[i]];
+            // shift the range by a few days so some lookups overlap and some do not
+            lookups[i] = new Booking(dateAfter(booking.getBegin().toEpochDay() - TODAY.toEpochDay() + i % 5),
+                    dateAfter(booking.getEnd().toEpochDay() - TODAY.toEpochDay() + i % 5),
+                    employees[(keys[i] + i) % employees.length], booking.getVehicle());
+        }
+        measure("Reservation.isAvailable", size, i -> {
+            Booking lookup = lookups[i & (KEYS - 1)];
+            return reservation.isAvailable(lookup.getVehicle().getPlate(), lookup.getBegin(), lookup.getEnd()) ? 1 : 0;
+        });
+        measure("Reservation.hasTimeConflict", size, i -> {
+            Booking lookup = lookups[i & (KEYS - 1)];
+            return reservation.hasTimeConflict(lookup.getEmployee(), lookup.getBegin(), lookup.getEnd()) ? 1 : 0;
+        });
+        measure("Reservation.getEarliestBooking", size, i -> {
+            Booking earliest = reservation.getEarliestBooking(lookups[i & (KEYS - 1)].getVehicle().getPlate());
+            return earliest.getEnd().toPackedInt();
+        });
+    }
+
+    /**
+     * Runs the TripList benchmarks at one size.
+     *
+     * @param size the number of trips in the list
+     */
+    private void benchTripList(int size) {
+        Trip[] trips = trips(size);
+        measureBulk("TripList.add", size, () -> {
+            TripList triplist = new TripList();
+            return i -> {
+                for (Trip trip : trips) {
+                    triplist.add(trip);
+                }
+                return triplist.getSize();
+            };
+        });
+
+        TripList triplist = new TripList();
+        triplist.addAll(trips);
+        measure("TripList.toArray", size, i -> triplist.toArray().length);
+        StringBuilder out = new StringBuilder();
+        measure("TripList.print", size, i -> {
+            out.setLength(0);
+            triplist.print(out);
+            return out.length();
+        });
+    }
+
+    /**
+     * Runs the Date and Booking benchmarks at one size: the number of
+     * distinct dates and bookings cycled through, which decides how much of
+     * them fits in the caches.
+     *
+     * @param size the number of dates and bookings
+     */
+    private void benchChecks(int size) {
+        Booking[] bookings = bookings(size);
+        Date[] dates = new Date[size];
+        for (int i = 0; i < size; i++) {
+            dates[i] = bookings[i].getBegin();
+        }
+        measure("Date.compareTo", size, i -> {
+            int at = i % size;
+            return dates[at].compareTo(dates[size - 1 - at]);
+        });
+        measure("Booking.isTooLong", size, i -> bookings[i % size].isTooLong() ? 1 : 0);
+    }
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        int[] sizes = SIZES;
+        if (args.length > 1) {
+            sizes = Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray();
+        }
+        Date.setClock(DateClock.fixed(TODAY));
+        ContainerBenchmark benchmark = new ContainerBenchmark(filter);
+        System.out.printf("%-30s %10s %14s%n", "Benchmark", "Size", "Score");
+        for (int size : sizes) {
+            benchmark.benchFleet(size);
+            benchmark.benchReservation(size);
+            benchmark.benchTripList(size);
+            benchmark.benchChecks(size);
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+}
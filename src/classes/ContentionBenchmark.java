@@ -0,0 +1,243 @@
+package classes;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how tryBook() holds up when many clients book the same few
+ * vehicles at once, with the locking checks and with the lock-free claims
+ * (see Reservation(boolean)).
+ * Each client works through its own list of bookings of the hot vehicles,
+ * made before the timing starts: it tries to book the next one, and when it
+ * holds a booking it sometimes cancels it instead, so days keep coming free.
+ * A run lasts a fixed time and counts the calls made by every client. The
+ * two kinds of Reservation take turns, after one run each to warm up, and
+ * the median run of each is reported. After every run the bookings are
+ * checked for a vehicle or an employee booked twice on the same day.
+ * Options are given as name=value: clients, vehicles (the number of hot
+ * vehicles), days (how far ahead bookings begin), cancel (the chance a
+ * client holding a booking cancels it), millis (the length of a run), runs,
+ * and seed.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class ContentionBenchmark {
+    // Define constants for the defaults and the number of bookings each client cycles through
+    private static final int CLIENTS = 64;
+    private static final int VEHICLES = 4;
+    private static final int DAYS = 28;
+    private static final int MILLIS = 2_000;
+    private static final int RUNS = 5;
+    private static final int BOOKINGS_PER_CLIENT = 1 << 12; //a power of two
+    private static final int MAX_LENGTH = 3; //days a booking can last
+
+    private final String[] options; //name=value pairs from the command line
+
+    /**
+     * Counts of what one run did.
+     */
+    private static class Result {
+        long calls; //tryBook() and remove() calls made
+        long booked; //tryBook() calls that returned OK
+        long conflicts; //pairs of bookings left that overlap on a vehicle or an employee
+    }
+
+    /**
+     * Creates a benchmark reading the given options.
+     *
+     * @param options name=value pairs
+     */
+    private ContentionBenchmark(String[] options) {
+        this.options = options;
+    }
+
+    /**
+     * Finds the value of an option.
+     *
+     * @param name the name of the option
+     * @param otherwise the value if the option is not given
+     * @return the value given for the option, or otherwise
+     */
+    private String option(String name, String otherwise) {
+        for (String option : this.options) {
+            if (option.startsWith(name + "=")) {
+                return option.substring(name.length() + 1);
+            }
+        }
+        return otherwise;
+    }
+
+    /**
+     * Makes the bookings each client cycles through: a hot vehicle, a
+     * random employee, and a short range beginning in the next few days.
+     *
+     * @param clients the number of clients
+     * @param vehicles the number of hot vehicles
+     * @param days how many days ahead a booking can begin
+     * @param seed the seed of the random numbers
+     * @return the bookings of each client
+     */
+    private static Booking[][] bookings(int clients, int vehicles, int days, long seed) {
+        Random random = new Random(seed);
+        int today = Date.getClock().today();
+        Vehicle[] fleet = new Vehicle[vehicles];
+        for (int i = 0; i < vehicles; i++) {
+            fleet[i] = new Vehicle(String.format("HOT%03d", i), new Date(1, 1, 2020), Make.values()[i % Make.values().length], 10_000);
+        }
+        Employee[] employees = Employee.values();
+        Booking[][] bookings = new Booking[clients][BOOKINGS_PER_CLIENT];
+        for (int client = 0; client < clients; client++) {
+            for (int i = 0; i < BOOKINGS_PER_CLIENT; i++) {
+                int begin = today + random.nextInt(days);
+                bookings[client][i] = new Booking(Date.ofEpochDay(begin), Date.ofEpochDay(begin + random.nextInt(MAX_LENGTH)),
+                        employees[random.nextInt(employees.length)], fleet[random.nextInt(vehicles)]);
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Runs every client against one Reservation for a fixed time.
+     *
+     * @param reservation the Reservation the clients share
+     * @param bookings the bookings of each client
+     * @param cancel the chance a client holding a booking cancels it
+     * @param millis the length of the run
+     * @param seed the seed of the random numbers
+     * @return what the run did
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    private static Result run(Reservation reservation, Booking[][] bookings, double cancel, int millis, long seed)
+            throws InterruptedException {
+        int clients = bookings.length;
+        long[] calls = new long[clients];
+        long[] booked = new long[clients];
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread[] threads = new Thread[clients];
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            threads[c] = new Thread(() -> {
+                Random random = new Random(seed + client);
+                Booking[] mine = bookings[client];
+                Booking held = null;
+                long count = 0;
+                long ok = 0;
+                ready.countDown();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; !stop.get(); i++) {
+                    if (held != null && random.nextDouble() < cancel) {
+                        reservation.remove(held);
+                        held = null;
+                    }
+                    else {
+                        Booking booking = mine[i & (BOOKINGS_PER_CLIENT - 1)];
+                        if (reservation.tryBook(booking) == Outcome.OK) {
+                            ok++;
+                            held = booking;
+                        }
+                    }
+                    count++;
+                }
+                calls[client] = count;
+                booked[client] = ok;
+            });
+            threads[c].start();
+        }
+        ready.await();
+        start.countDown();
+        Thread.sleep(millis);
+        stop.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Result result = new Result();
+        for (int c = 0; c < clients; c++) {
+            result.calls += calls[c];
+            result.booked += booked[c];
+        }
+        result.conflicts = conflicts(reservation.toArray());
+        return result;
+    }
+
+    /**
+     * Counts the pairs of bookings that share a day on the same vehicle or
+     * with the same employee, which tryBook() should never allow.
+     *
+     * @param bookings every booking
+     * @return the number of such pairs
+     */
+    private static long conflicts(Booking[] bookings) {
+        long conflicts = 0;
+        for (int i = 0; i < bookings.length; i++) {
+            for (int j = i + 1; j < bookings.length; j++) {
+                Booking a = bookings[i];
+                Booking b = bookings[j];
+                boolean overlap = a.getBegin().compareTo(b.getEnd()) <= 0 && b.getBegin().compareTo(a.getEnd()) <= 0;
+                if (overlap && (a.getVehicle().equals(b.getVehicle()) || a.getEmployee() == b.getEmployee())) {
+                    conflicts++;
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Runs both kinds of Reservation in turn and prints the report.
+     *
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    private void runAll() throws InterruptedException {
+        int clients = Integer.parseInt(option("clients", String.valueOf(CLIENTS)));
+        int vehicles = Integer.parseInt(option("vehicles", String.valueOf(VEHICLES)));
+        int days = Integer.parseInt(option("days", String.valueOf(DAYS)));
+        double cancel = Double.parseDouble(option("cancel", "0.25"));
+        int millis = Integer.parseInt(option("millis", String.valueOf(MILLIS)));
+        int runs = Integer.parseInt(option("runs", String.valueOf(RUNS)));
+        long seed = Long.parseLong(option("seed", "1"));
+        Date.setClock(DateClock.fixed(Date.ofEpochDay(DateClock.SYSTEM.today())));
+        Booking[][] bookings = bookings(clients, vehicles, days, seed);
+
+        String[] names = {"locking", "lock-free"};
+        double[][] perSecond = new double[names.length][runs];
+        long[][] booked = new long[names.length][runs];
+        long conflicts = 0;
+        for (int run = -1; run < runs; run++) {
+            for (int kind = 0; kind < names.length; kind++) {
+                Result result = run(new Reservation(kind == 1), bookings, cancel, millis, seed + run);
+                conflicts += result.conflicts;
+                if (run >= 0) {
+                    perSecond[kind][run] = result.calls * 1000.0 / millis;
+                    booked[kind][run] = result.booked;
+                }
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("*%d clients booking %d vehicles, %d runs of %,d ms on %d processors.%n",
+                clients, vehicles, runs, millis, Runtime.getRuntime().availableProcessors()));
+        for (int kind = 0; kind < names.length; kind++) {
+            double[] sorted = perSecond[kind].clone();
+            Arrays.sort(sorted);
+            long bookedTotal = 0;
+            for (long count : booked[kind]) {
+                bookedTotal += count;
+            }
+            out.append(String.format("%-10s median %,12.0f calls/s  (min %,.0f, max %,.0f)  booked %,d%n",
+                    names[kind], sorted[runs / 2], sorted[0], sorted[runs - 1], bookedTotal / runs));
+        }
+        out.append(String.format("conflicts: %d%n", conflicts));
+        System.out.print(out);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        new ContentionBenchmark(args).runAll();
+    }
+}
@@ -1,9 +1,12 @@
 package classes;
-import java.util.Calendar;
 /**
  * This class implements the Date object.
  * The Date class represents a date on the calendar in the form M/D/YYYY.
  * Here, a Date can be compared, printed, and validated.
+ * Each Date also carries its year, month, and day packed into one int,
+ * so two dates are compared with a single int comparison.
+ * What day today is comes from the DateClock installed with setClock(),
+ * and date arithmetic is done on epoch days without creating objects.
  *
  * @author Aaman Gafur, Jai Patel
  */
@@ -15,6 +18,17 @@ public class Date implements Comparable<Date>{
     private int year;
     private int month;
     private int day;
+    private int packed; //year, month, and day packed by pack()
+
+    private static DateClock clock = DateClock.SYSTEM; //decides what day today is
+
+    // Define constants for the bit layout of a packed date: year, 4 bits month, 5 bits day
+    private static final int MONTH_BITS = 4;
+    private static final int DAY_BITS = 5;
+
+    // Define the range of years that fit in the bits of a packed date
+    private static final int MAX_PACKED_YEAR = Integer.MAX_VALUE >> (MONTH_BITS + DAY_BITS);
+    private static final int MIN_PACKED_YEAR = Integer.MIN_VALUE >> (MONTH_BITS + DAY_BITS);
 
 
     /**
@@ -24,6 +38,7 @@ public class Date implements Comparable<Date>{
         this.year = 2000;
         this.month = 1;
         this.day = 1;
+        this.packed = pack(this.month, this.day, this.year);
     }
 
     /**
@@ -38,6 +53,7 @@ public class Date implements Comparable<Date>{
         this.month = month;
         this.day = day;
         this.year = year;
+        this.packed = pack(month, day, year);
     }
 
     /**
@@ -48,6 +64,65 @@ public class Date implements Comparable<Date>{
         this.month = other.month;
         this.day = other.day;
         this.year = other.year;
+        this.packed = other.packed;
+    }
+
+    /**
+     * Packs a date into one int that orders the same way as the date:
+     * the year in the high bits, then 4 bits of month and 5 bits of day.
+     * A month or day outside of those bits (never a valid calendar date) is
+     * clamped, so such dates only order by their nearest packable date.
+     * A year outside of MIN_PACKED_YEAR to MAX_PACKED_YEAR is clamped in the
+     * same way, so packing never wraps around; compareTo() compares such
+     * dates field by field.
+     *
+     * @param month the month of the date
+     * @param day the day of the date
+     * @param year the year of the date
+     * @return the packed date
+     */
+    public static int pack(int month, int day, int year) {
+        int packedMonth = Math.max(0, Math.min(month, (1 << MONTH_BITS) - 1));
+        int packedDay = Math.max(0, Math.min(day, (1 << DAY_BITS) - 1));
+        int packedYear = Math.max(MIN_PACKED_YEAR, Math.min(year, MAX_PACKED_YEAR));
+        return (packedYear << (MONTH_BITS + DAY_BITS)) | (packedMonth << DAY_BITS) | packedDay;
+    }
+
+    /**
+     * Unpacks a date packed by pack(). Only dates whose month and day fit
+     * in their bits, as every valid calendar date does, come back unchanged.
+     *
+     * @param packed the packed date
+     * @return the date the packed int holds
+     */
+    public static Date ofPacked(int packed) {
+        int day = packed & ((1 << DAY_BITS) - 1);
+        int month = (packed >> DAY_BITS) & ((1 << MONTH_BITS) - 1);
+        return new Date(month, day, packed >> (MONTH_BITS + DAY_BITS));
+    }
+
+    /**
+     * Packs this date into one long that holds every year unclamped: the
+     * year in the high 32 bits, then the month and day as pack() packs them.
+     * Unlike toPackedInt(), the date can always be unpacked as it was, so
+     * this is the form dates are stored in.
+     *
+     * @return this date packed into a long
+     */
+    public long toPackedLong() {
+        return ((long) year << Integer.SIZE) | pack(month, day, 0);
+    }
+
+    /**
+     * Unpacks a date packed by toPackedLong().
+     *
+     * @param packed the packed date
+     * @return the date the packed long holds
+     */
+    public static Date ofPackedLong(long packed) {
+        int monthAndDay = (int) packed;
+        return new Date((monthAndDay >> DAY_BITS) & ((1 << MONTH_BITS) - 1), monthAndDay & ((1 << DAY_BITS) - 1),
+                (int) (packed >> Integer.SIZE));
     }
 
 //GETTER METHODS
@@ -75,6 +150,106 @@ public class Date implements Comparable<Date>{
     public int getDay() {
         return day;
     }
+
+    /**
+     * Getter for the packed form of this date.
+     * Comparing the packed forms of two dates gives the same order as compareTo().
+     * @return this date packed by pack().
+     */
+    public int toPackedInt() {
+        return packed;
+    }
+    /**
+     * Converts this date into the number of days since 1/1/1970.
+     * Dates before then give negative numbers.
+     * @return the epoch day of this date.
+     */
+    public int toEpochDay() {
+        return toEpochDay(month, day, year);
+    }
+
+    /**
+     * Converts a date into the number of days since 1/1/1970.
+     * Years so far away that the epoch day does not fit in an int give
+     * Integer.MAX_VALUE or Integer.MIN_VALUE instead of wrapping around.
+     * @param month the month of the date
+     * @param day the day of the date
+     * @param year the year of the date
+     * @return the epoch day of the date.
+     */
+    public static int toEpochDay(int month, int day, int year) {
+        int y = (month <= 2) ? year - 1 : year;
+        int era = Math.floorDiv(y, QUATERCENTENNIAL);
+        int yearOfEra = y - era * QUATERCENTENNIAL;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / QUADRENNIAL - yearOfEra / CENTENNIAL + dayOfYear;
+        long epochDay = (long) era * DAYS_PER_ERA + dayOfEra - EPOCH_OFFSET;
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(epochDay, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Creates the date of an epoch day.
+     * @param epochDay the number of days since 1/1/1970
+     * @return the date of that day.
+     */
+    public static Date ofEpochDay(int epochDay) {
+        int z = epochDay + EPOCH_OFFSET;
+        int era = Math.floorDiv(z, DAYS_PER_ERA);
+        int dayOfEra = z - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / (DAYS_PER_ERA - 1)) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / QUADRENNIAL - yearOfEra / CENTENNIAL);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        return new Date(month, day, yearOfEra + era * QUATERCENTENNIAL + (month <= 2 ? 1 : 0));
+    }
+
+    /**
+     * Adds a number of months to an epoch day. When the month reached is
+     * shorter than the day of the month, the last day of that month is used.
+     * @param epochDay the epoch day to start from
+     * @param months the number of months to add
+     * @return the epoch day the given number of months later.
+     */
+    public static int plusMonths(int epochDay, int months) {
+        int z = epochDay + EPOCH_OFFSET;
+        int era = Math.floorDiv(z, DAYS_PER_ERA);
+        int dayOfEra = z - era * DAYS_PER_ERA;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / (DAYS_PER_ERA - 1)) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / QUADRENNIAL - yearOfEra / CENTENNIAL);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        int year = yearOfEra + era * QUATERCENTENNIAL + (month <= 2 ? 1 : 0);
+
+        int monthIndex = year * 12 + (month - 1) + months;
+        year = Math.floorDiv(monthIndex, 12);
+        month = monthIndex - year * 12 + 1;
+        return toEpochDay(month, Math.min(day, daysInMonth(month, year)), year);
+    }
+
+    /**
+     * Installs the clock that decides what day today is.
+     * @param newClock the clock to use from now on
+     */
+    public static void setClock(DateClock newClock) {
+        clock = newClock;
+    }
+
+    /**
+     * Getter for the installed clock.
+     * @return the clock that decides what day today is.
+     */
+    public static DateClock getClock() {
+        return clock;
+    }
+
+    // Define constant for the number of days in 400 years
+    private static final int DAYS_PER_ERA = 146097;
+
+    // Define constant for the days from 3/1/0000 to 1/1/1970
+    private static final int EPOCH_OFFSET = 719468;
+
     /**
      * Checks whether a date is equal to another date.
      * The dates are equal if year, month, and day all match.
@@ -92,43 +267,46 @@ public class Date implements Comparable<Date>{
         return false;
     }
 
-    // Define constant for if this.date occurs after other.date
-    private static final int THIS_AFTER_OTHER = 1;
-
-    // Define constant for if this.date occurs before other.date
-    private static final int THIS_BEFORE_OTHER = -1;
-
-    // Define constant for if this.date and other.date are the same date
-    private static final int SAME_DATE = 0;
+    /**
+     * Returns a hash code for this date, consistent with equals().
+     * @return the hash code built from the year, month, and day.
+     */
+    @Override
+    public int hashCode() {
+        return (year * 31 + month) * 31 + day;
+    }
 
     /**
      * Compare two Date objects.
-     * The comparison is done by year, then by month, then day.
+     * The comparison is done by year, then by month, then day, through the
+     * packed forms of the dates, or field by field when a year is too large
+     * or too small to be packed.
      * @param other the Date object to compare with this date
      * @return return 1 if this date is later than the other date, return -1 if it is earlier
      *  and return 0 if they are the same date
      */
     @Override
     public int compareTo(Date other) {
-        if (this.year > other.year) {
-            return THIS_AFTER_OTHER;
+        if (isPackable(this.year) && isPackable(other.year)) {
+            return Integer.compare(this.packed, other.packed);
         }
-        if (this.year < other.year) {
-            return THIS_BEFORE_OTHER;
+        if (this.year != other.year) {
+            return Integer.compare(this.year, other.year);
         }
-        if (this.month > other.month) {
-            return THIS_AFTER_OTHER;
+        if (this.month != other.month) {
+            return Integer.compare(this.month, other.month);
         }
-        if (this.month < other.month) {
-            return THIS_BEFORE_OTHER;
-        }
-        if (this.day > other.day) {
-            return THIS_AFTER_OTHER;
-        }
-        if (this.day < other.day) {
-            return THIS_BEFORE_OTHER;
-        }
-        return SAME_DATE;
+        return Integer.compare(this.day, other.day);
+    }
+
+    /**
+     * Checks whether a year fits in the bits of a packed date unclamped.
+     *
+     * @param year the year to check
+     * @return true if pack() keeps the year as it is, false otherwise
+     */
+    private static boolean isPackable(int year) {
+        return year >= MIN_PACKED_YEAR && year <= MAX_PACKED_YEAR;
     }
 
     /**
@@ -137,7 +315,17 @@ public class Date implements Comparable<Date>{
      */
     @Override
     public String toString() {
-        return month + "/" + day + "/" + year;
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends this date in M/D/YYYY format to a buffer, without building an
+     * intermediate string.
+     * @param out the buffer to append to
+     * @return the buffer, so more can be appended to it.
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        return out.append(month).append('/').append(day).append('/').append(year);
     }
 
     /**
@@ -147,7 +335,7 @@ public class Date implements Comparable<Date>{
      * @return true if it is a leap year, false otherwise.
      */
 
-    private boolean leapYear(int year) {
+    private static boolean leapYear(int year) {
         return (year % QUATERCENTENNIAL == 0) || (year % QUADRENNIAL == 0) && (year % CENTENNIAL != 0);
     }
 
@@ -164,26 +352,34 @@ public class Date implements Comparable<Date>{
         if (this.day < 1 || this.day > 31) {
             return false;
         }
-        int[] days = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
-        if  (month == 2 && leapYear(year)) {
-            days[1] = 29;
-        }
 
-        return day > 0 && day <= days[month-1];
+        return day > 0 && day <= daysInMonth(month, year);
+    }
+
+    // Define the number of days in each month of a common year
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    /**
+     * Finds the number of days in a month, using leap year rulings.
+     *
+     * @param month the month, from 1 to 12
+     * @param year the year of the month
+     * @return the number of days in the month
+     */
+    private static int daysInMonth(int month, int year) {
+        if (month == 2 && leapYear(year)) {
+            return 29;
+        }
+        return DAYS_IN_MONTH[month - 1];
     }
 
     /**
-     * Checks if the date is today or a future date.
+     * Checks if the date is today or a future date, according to the
+     * installed clock.
      * @return true if the date is today or in the future, false otherwise.
      */
     public boolean isTodayOrFuture(){
-        Calendar today = Calendar.getInstance();
-        today.set(2025, 8, 29);
-
-        Calendar bookingDate = Calendar.getInstance();
-        bookingDate.set(this.getYear(), this.getMonth(), this.getDay());
-
-        return !bookingDate.before(today);
+        return toEpochDay() >= clock.today();
     }
 
     public static void main(String[] args) {
@@ -194,6 +390,44 @@ public class Date implements Comparable<Date>{
         System.out.println(new Date(0, 10, 2020).isValid()); // false
         System.out.println(new Date(12, 31, 2025).isValid()); // true
         System.out.println(new Date(7, 32, 2020).isValid()); // false (day > 31)
+
+        // toEpochDay tests
+        System.out.println(new Date(1, 1, 1970).toEpochDay()); // 0
+        System.out.println(new Date(3, 1, 2024).toEpochDay() - new Date(2, 28, 2024).toEpochDay()); // 2
+
+        // ofEpochDay tests
+        System.out.println(ofEpochDay(0)); // 1/1/1970
+        System.out.println(ofEpochDay(new Date(2, 29, 2024).toEpochDay())); // 2/29/2024
+
+        // plusMonths tests
+        System.out.println(plusMonths(new Date(11, 30, 2025).toEpochDay(), 3)
+                == new Date(2, 28, 2026).toEpochDay()); // true (clamped to end of February)
+
+        // toEpochDay tests for years whose epoch day does not fit in an int
+        System.out.println(new Date(1, 1, 9999999).toEpochDay() > new Date(1, 1, 5000000).toEpochDay()); // true
+        System.out.println(new Date(1, 1, -9999999).toEpochDay() < new Date(1, 1, 1970).toEpochDay()); // true
+
+        // isTodayOrFuture tests
+        setClock(DateClock.fixed(new Date(9, 29, 2025)));
+        System.out.println(new Date(9, 29, 2025).isTodayOrFuture()); // true
+        System.out.println(new Date(9, 28, 2025).isTodayOrFuture()); // false
+        setClock(DateClock.SYSTEM);
+
+        // compareTo tests
+        System.out.println(new Date(12, 31, 2024).compareTo(new Date(1, 1, 2025))); // -1
+        System.out.println(new Date(2, 1, 2025).compareTo(new Date(1, 31, 2025))); // 1
+
+        // compareTo tests for years too large or too small to pack
+        System.out.println(new Date(1, 1, 5000000).compareTo(new Date(1, 1, 2025))); // 1
+        System.out.println(new Date(1, 1, 1 << 22).compareTo(new Date(12, 31, (1 << 22) - 1))); // 1
+        System.out.println(new Date(2, 1, 5000000).compareTo(new Date(3, 1, 5000000))); // -1
+        System.out.println(new Date(1, 1, -5000000).compareTo(new Date(1, 1, 2025))); // -1
+        System.out.println(new Date(1, 1, 5000000).toPackedInt() > new Date(1, 1, 2025).toPackedInt()); // true
+
+        // toPackedLong tests, which keep every year
+        System.out.println(ofPackedLong(new Date(1, 1, -5000000).toPackedLong())); // 1/1/-5000000
+        System.out.println(ofPackedLong(new Date(12, 31, Integer.MAX_VALUE).toPackedLong())); // 12/31/2147483647
+        System.out.println(ofPackedLong(new Date(2, 29, 2024).toPackedLong())); // 2/29/2024
     }
 
 
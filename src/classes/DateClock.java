@@ -0,0 +1,44 @@
+package classes;
+import java.util.TimeZone;
+
+/**
+ * Interface for the clock that decides what day today is.
+ * The booking rules ask the clock installed with Date.setClock() for today,
+ * as an epoch day (see Date.toEpochDay()), so load tests and replays can run
+ * against a simulated day instead of the system time.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public interface DateClock {
+    /** Clock that reads the system time in the default time zone. */
+    DateClock SYSTEM = new DateClock() {
+        private final TimeZone zone = TimeZone.getDefault();
+
+        @Override
+        public int today() {
+            long millis = System.currentTimeMillis();
+            return (int) Math.floorDiv(millis + zone.getOffset(millis), MILLIS_PER_DAY);
+        }
+    };
+
+    /** The number of milliseconds in a day. */
+    long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    /**
+     * Finds what day today is.
+     *
+     * @return the epoch day of today
+     */
+    int today();
+
+    /**
+     * Creates a clock that always reports the same day.
+     *
+     * @param today the date the clock reports as today
+     * @return a clock fixed to that date
+     */
+    static DateClock fixed(Date today) {
+        int day = today.toEpochDay();
+        return () -> day;
+    }
+}
@@ -1,23 +1,102 @@
 package classes;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * The Fleet class manages a resizable array of Vehicle objects.
  * Supports adding, removing, searching, and printing vehicles.
- * The array grows by 4 when it reaches full capacity (starts at 4).
+ * The array doubles when it reaches full capacity (starts at 4), so adding
+ * n vehicles copies the array O(log n) times.
+ * A plate index maps each plate (case-insensitive) to its array slot,
+ * so lookups by plate do not scan the array, and a view of each make's
+ * vehicles ordered by date obtained lets the fleet be listed without sorting.
+ * Vehicles obtained on the same date are listed in the order of their slots
+ * in the array, and listing the fleet puts the array in the listed order, as
+ * the insertion sort that used to list it did.
  * @author Aaman Gafur, Jai Patel
  */
 public class Fleet {
     private static final int CAPACITY = 4; //initial capacity
     private static final int NOT_FOUND = -1;
+    private static final String NEWLINE = System.lineSeparator(); //ends each printed line, as println() does
     private Vehicle[] fleet;
     private int size; //current number of vehicles in the fleet
+    private HashMap<String, Integer> plateIndex; //plate key -> index in fleet
+    private Slot[] slots; //the slot of each vehicle, parallel to fleet
+    private EnumMap<Make, TreeSet<Slot>> byMake; //view of each make's vehicles ordered by date obtained, then slot
+
+    /**
+     * A vehicle in a per-make view, with the index of its slot in the array.
+     */
+    private static class Slot {
+        private final Vehicle vehicle;
+        private int index; //index of the vehicle in fleet
+
+        /**
+         * Creates the slot of a vehicle.
+         * @param vehicle the vehicle
+         * @param index the index of the vehicle in the array
+         */
+        private Slot(Vehicle vehicle, int index) {
+            this.vehicle = vehicle;
+            this.index = index;
+        }
+    }
 
     /**
      * Default constructor initializes the fleet with initial capacity.
      */
     public Fleet() {
         this.fleet = new Vehicle[CAPACITY];
+        this.slots = new Slot[CAPACITY];
         this.size = 0;
+        this.plateIndex = new HashMap<>();
+        this.byMake = new EnumMap<>(Make.class);
+        for (Make make : Make.values()) {
+            this.byMake.put(make, new TreeSet<>(Fleet::compareObtained));
+        }
+    }
+
+    /**
+     * Normalizes a plate into the key used by the plate index.
+     * Upper-casing matches the equalsIgnoreCase lookups on plates.
+     * @param plate the plate to normalize
+     * @return the index key for the plate
+     */
+    private static String plateKey(String plate) {
+        return plate.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Orders two vehicles of one make by date obtained, then by their slots
+     * in the array. The slot of a vehicle in a view only changes while it is
+     * out of the view, or for every vehicle at once in the view's order.
+     * @param a the slot of the first vehicle
+     * @param b the slot of the second vehicle
+     * @return negative if a comes first, positive if b comes first, 0 if equal
+     */
+    private static int compareObtained(Slot a, Slot b) {
+        int compareObtained = a.vehicle.getObtained().compareTo(b.vehicle.getObtained());
+        if (compareObtained != 0) {
+            return compareObtained;
+        }
+        return Integer.compare(a.index, b.index);
+    }
+
+    /**
+     * Finds the index of a vehicle's plate in the fleet.
+     * @param plate the plate to search for
+     * @return index of the vehicle with the plate if found, -1 otherwise
+     */
+    private int indexOf(String plate) {
+        if (plate == null) {
+            return NOT_FOUND;
+        }
+        Integer index = plateIndex.get(plateKey(plate));
+        return index == null ? NOT_FOUND : index;
     }
 
     /**
@@ -26,42 +105,84 @@ public class Fleet {
      * @return index of vehicle if found, -1 otherwise
      */
     private int find(Vehicle vehicle) {
-        for (int i = 0; i < size; i++) {
-            if (this.fleet[i].equals(vehicle)) {
-                return i;
-            }
+        if (vehicle == null) {
+            return NOT_FOUND;
+        }
+        int index = indexOf(vehicle.getPlate());
+        if (index != NOT_FOUND && this.fleet[index].equals(vehicle)) {
+            return index;
         }
         return NOT_FOUND;
     } //search the given vehicle
 
     /**
-     * Grows the fleet capacity by 4.
+     * Doubles the fleet capacity.
      */
     private void grow() {
-        Vehicle[] newFleet = new Vehicle[CAPACITY+fleet.length];
+        resize(Math.max(CAPACITY, 2 * fleet.length));
+    } //resize the array
+
+    /**
+     * Copies the fleet into a new array of the given capacity.
+     * @param capacity the new capacity, at least the current size
+     */
+    private void resize(int capacity) {
+        Vehicle[] newFleet = new Vehicle[capacity];
+        Slot[] newSlots = new Slot[capacity];
         for (int i = 0; i < size; i++) {
             newFleet[i] = fleet[i];
+            newSlots[i] = slots[i];
         }
         fleet = newFleet;
-    } //resize the array
+        slots = newSlots;
+    }
+
+    /**
+     * Grows the fleet, if needed, so it can hold the given number of vehicles
+     * without growing again.
+     * @param minCapacity the number of vehicles the fleet should hold
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > fleet.length) {
+            resize(Math.max(minCapacity, 2 * fleet.length));
+        }
+    }
 
     /**
      * Adds a vehicle to the fleet.
-     * If the fleet is full, grows by 4 using grow function.
+     * If the fleet is full, doubles the capacity using grow function.
      *
      * @param vehicle the vehicle that is being added
      */
     public void add(Vehicle vehicle) {
-       if (this.searchByPlate(vehicle.getPlate()) != null){
+       if (indexOf(vehicle.getPlate()) != NOT_FOUND){
            return;
        }
        if (size == fleet.length) {
            grow();
        }
        fleet[size] = vehicle;
+       slots[size] = new Slot(vehicle, size);
+       plateIndex.put(plateKey(vehicle.getPlate()), size);
+       byMake.get(vehicle.getMake()).add(slots[size]);
        size=size+1;
     } //add to end of array
 
+    /**
+     * Adds many vehicles to the fleet at once.
+     * The capacity is reserved up front, and each vehicle is checked against
+     * the plate index, so duplicates (in the fleet or earlier in the array)
+     * are skipped in a single pass.
+     *
+     * @param vehicles the vehicles that are being added
+     */
+    public void addAll(Vehicle[] vehicles) {
+        ensureCapacity(size + vehicles.length);
+        for (Vehicle vehicle : vehicles) {
+            add(vehicle);
+        }
+    }
+
     /**
      * Removes a vehicle from the fleet by overwriting it with the last element.
      *
@@ -70,7 +191,22 @@ public class Fleet {
     public void remove(Vehicle vehicle) {
         int index = find(vehicle);
         if (index != NOT_FOUND){
-            fleet[index] = fleet[size-1];
+            byMake.get(fleet[index].getMake()).remove(slots[index]);
+            plateIndex.remove(plateKey(vehicle.getPlate()));
+            Vehicle last = fleet[size-1];
+            if (index != size-1) {
+                // the last vehicle changes slot, so it leaves its view while its key changes
+                Slot lastSlot = slots[size-1];
+                TreeSet<Slot> lastView = byMake.get(last.getMake());
+                lastView.remove(lastSlot);
+                lastSlot.index = index;
+                fleet[index] = last;
+                slots[index] = lastSlot;
+                plateIndex.put(plateKey(last.getPlate()), index);
+                lastView.add(lastSlot);
+            }
+            fleet[size-1] = null;
+            slots[size-1] = null;
             size=size-1;
         }
     } //overwrite with last element
@@ -88,61 +224,118 @@ public class Fleet {
     /**
      * Checks whether the fleet contains the vehicle, according to its plate.
      * @param plate the vehicle.plate that needs to be checked
-     * @return index of vehicle if it is found exists, -1 otherwise
+     * @return the vehicle if it is found, null otherwise
      */
     public Vehicle searchByPlate(String plate) {
-        for(int i = 0; i < this.size; i++){
-            Vehicle vehicle = this.fleet[i];
+        int index = indexOf(plate);
+        return index == NOT_FOUND ? null : this.fleet[index];
+    }
 
-            if (vehicle != null && vehicle.getPlate().equalsIgnoreCase(plate)) {
-                return vehicle;
-            }
+    /**
+     * Copies the vehicles of the fleet into an array, in no particular order.
+     * @return an array of the vehicles in the fleet
+     */
+    public Vehicle[] toArray() {
+        Vehicle[] vehicles = new Vehicle[size];
+        for (int i = 0; i < size; i++) {
+            vehicles[i] = fleet[i];
         }
-        return null;
+        return vehicles;
     }
 
     /**
      * Prints the fleet ordered by make and date obtained.
-     * Uses in-place insertion sort. Prints a message if empty.
+     * Streams the per-make views, so nothing is sorted. Prints a message if empty.
      */
     public void printByMake() {
+        StringBuilder out = new StringBuilder();
+        printByMake(out);
+        System.out.print(out);
+    } //ordered by make, then date obtained
+
+    /**
+     * Appends the lines of printByMake() to an output buffer instead of printing them.
+     * The array is left in the listed order, so vehicles obtained on the
+     * same date keep the slots the insertion sort would have given them.
+     * @param out the buffer the list is appended to
+     */
+    public void printByMake(StringBuilder out) {
         if (size == 0) {
-            System.out.println("There is no vehicle in the fleet.");
+            out.append("There is no vehicle in the fleet.").append(NEWLINE);
             return;
         }
 
-        for (int i = 1; i < size; i++) {
-            Vehicle key = fleet[i];
-            int j = i - 1;
-
-            while (j >= 0) {
-
-                int compareMake = fleet[j].getMake().compareTo(key.getMake());
-
-                if (compareMake > 0) {
-                    fleet[j + 1] = fleet[j];
-                    j--;
-                } else if (compareMake == 0) {
-                    if (fleet[j].getObtained().compareTo(key.getObtained()) > 0) {
-                        fleet[j + 1] = fleet[j];
-                        j--;
-                    } else {
-                        break;
-                    }
-                } else {
-                    break;
+        out.append("*List of vehicles in the fleet, ordered by make and date obtained.").append(NEWLINE);
+        int index = 0;
+        for (TreeSet<Slot> view : byMake.values()) {
+            for (Slot slot : view) {
+                slot.vehicle.appendTo(out).append(NEWLINE);
+                // slots are given in view order, so the views stay ordered
+                if (slot.index != index) {
+                    slot.index = index;
+                    fleet[index] = slot.vehicle;
+                    slots[index] = slot;
+                    plateIndex.put(plateKey(slot.vehicle.getPlate()), index);
                 }
+                index++;
             }
-            fleet[j + 1] = key;
         }
+        out.append("*end of list.").append(NEWLINE);
+    }
 
-        System.out.println("*List of vehicles in the fleet, ordered by make and date obtained.");
-        for (int i = 0; i < size; i++) {
-            System.out.println(fleet[i]);
+
+    /**
+     * Prints the vehicles that are free for a whole date range, ordered by
+     * make and date obtained. Prints a message if no vehicle is free.
+     *
+     * @param bookedPlates plates of the vehicles booked during the range
+     * @param make the make to list, or null to list every make
+     * @param begin beginning date of the range
+     * @param end ending date of the range
+     */
+    public void printAvailable(Set<String> bookedPlates, Make make, Date begin, Date end) {
+        StringBuilder out = new StringBuilder();
+        printAvailable(out, bookedPlates, make, begin, end);
+        System.out.print(out);
+    }
+
+    /**
+     * Appends the lines of printAvailable() to an output buffer instead of printing them.
+     *
+     * @param out the buffer the list is appended to
+     * @param bookedPlates plates of the vehicles booked during the range
+     * @param make the make to list, or null to list every make
+     * @param begin beginning date of the range
+     * @param end ending date of the range
+     */
+    public void printAvailable(StringBuilder out, Set<String> bookedPlates, Make make, Date begin, Date end) {
+        String range = begin + " ~ " + end;
+        boolean isFirst = true;
+
+        for (Make current : Make.values()) {
+            if (make != null && current != make) {
+                continue;
+            }
+            for (Slot slot : byMake.get(current)) {
+                Vehicle vehicle = slot.vehicle;
+                if (bookedPlates.contains(vehicle.getPlate())) {
+                    continue;
+                }
+                if (isFirst) {
+                    String kind = (make == null) ? "vehicles" : make + " vehicles";
+                    out.append("*List of ").append(kind).append(" available from ").append(range).append('.').append(NEWLINE);
+                    isFirst = false;
+                }
+                vehicle.appendTo(out).append(NEWLINE);
+            }
         }
-        System.out.println("*end of list.");
-    } //ordered by make, then date obtained
 
+        if (isFirst) {
+            out.append("There is no vehicle available from ").append(range).append('.').append(NEWLINE);
+            return;
+        }
+        out.append("*end of list.").append(NEWLINE);
+    } //vehicles with no booking in the range
 
     public static void main(String[] args) {
         Fleet fleet = new Fleet();
@@ -167,6 +360,20 @@ public class Fleet {
         System.out.println("\nRemoving v2");
         fleet.remove(v2);
         fleet.printByMake();
+
+        // vehicles obtained on the same date keep their slot order, and removing
+        // a vehicle moves the last one into its slot
+        Fleet ties = new Fleet();
+        Date sameDay = new Date(6, 1, 2022);
+        Vehicle t1 = new Vehicle("ZZZ001", sameDay, Make.FORD, 100);
+        Vehicle t2 = new Vehicle("AAA002", sameDay, Make.FORD, 200);
+        Vehicle t3 = new Vehicle("MMM003", sameDay, Make.FORD, 300);
+        ties.add(t1);
+        ties.add(t2);
+        ties.add(t3);
+        ties.printByMake(); // ZZZ001, AAA002, MMM003
+        ties.remove(t1);
+        ties.printByMake(); // MMM003, AAA002
     }
 
 
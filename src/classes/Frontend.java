@@ -1,4 +1,12 @@
 package classes;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.SQLOutput;
 import java.util.Scanner;
 
@@ -6,6 +14,13 @@ import java.util.Scanner;
  * This class serves as the user interface for the Vehicle Management System.
  * The UI handles all command-line inputs and directs input requests to the
  * intended container classes.
+ * Responses are appended to an output buffer rather than printed one line at
+ * a time. In interactive mode the buffer is printed after every command; in
+ * batch mode a whole command file is run and the buffer is written to one
+ * buffered writer, giving the same bytes as interactive mode.
+ * Changes can also be recorded in a write-ahead Journal, which is committed
+ * before the responses to the commands that made them are written out.
+ * Every command is timed and counted in CommandMetrics, printed by PM.
  * @author Jai Patel, Aaman Gafur
  */
 
@@ -13,121 +28,416 @@ public class Frontend {
     private Fleet fleet;
     private Reservation reservation;
     private TripList triplist;
+    private CommandTokenizer tokenizer; //tokens of the command being run, reused for every command
+    private StringBuilder out; //responses not yet written out
+    private Journal journal; //write-ahead journal of changes, null when not journaling
+    private final CommandMetrics metrics; //counts and latencies of the commands run
+    private Outcome outcome; //how the command being run ended, OK unless it was rejected
+
+    // Define constants for the batch mode buffers, in chars
+    private static final int READ_BUFFER = 1 << 16;
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+    private static final String NEWLINE = System.lineSeparator();
 
     public Frontend(){
         this.fleet = new Fleet();
         this.reservation = new Reservation();
         this.triplist = new TripList();
+        this.tokenizer = new CommandTokenizer();
+        this.out = new StringBuilder();
+        this.metrics = new CommandMetrics();
+    }
+
+    /**
+     * Getter for the metrics of the commands run.
+     *
+     * @return the counts and latencies of the commands run
+     */
+    public CommandMetrics getMetrics(){
+        return this.metrics;
     }
 
-    public void run(){
+    /**
+     * Opens a write-ahead journal and replays it into the containers, then
+     * records every later change in it. Nothing is printed while replaying.
+     *
+     * @param path path of the journal file
+     * @param policy when the journal forces its records to disk
+     * @throws IOException if the journal cannot be opened or replayed
+     */
+    public void openJournal(Path path, FsyncPolicy policy) throws IOException {
+        this.journal = Journal.open(path, policy, this.fleet, this.reservation, this.triplist);
+    }
+
+    /**
+     * Commits and closes the journal, if one is open.
+     *
+     * @throws IOException if the journal cannot be written or closed
+     */
+    public void closeJournal() throws IOException {
+        if(this.journal != null){
+            Journal closing = this.journal;
+            this.journal = null;
+            closing.close();
+        }
+    }
+
+    /**
+     * Runs commands typed on the console until the system is terminated,
+     * printing the responses to each command as soon as it is done.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void run() throws IOException {
         Scanner scanner = new Scanner(System.in);
         boolean isActive = true;
-        System.out.println("Vehicle Management System is live.");
+        println("Vehicle Management System is live.");
+        flush();
         while(isActive){
             String request = scanner.nextLine().trim();
             if(request.isEmpty()) continue;
-            char command = request.toUpperCase().charAt(0);
-            switch(command) {
-                case 'A': // add vehicle command
-                    handleAddCommand(request);
-                    break;
-                case 'D': // delete vehicle command
-                    handleDeleteCommand(request);
-                    break;
-                case 'B': // book vehicle command
-                    handleBookingCommand(request);
-                    break;
-                case 'C': // cancel booking command
-                    handleCancel(request);
-                    break;
-                case 'R': // return vehicle command
-                    handleReturn(request);
-                    break;
-                case 'P': // print command
-                    String pCommand = request.substring(0,2);
-                    handlePrint(pCommand);
-                    break;
-                case 'Q': // quit command
-                    isActive = handleQuit(request);
-                    break;
-                default:
-                    System.out.println("Invalid command. Please try again.");
-                    break;
+            try{
+                isActive = execute(request);
+            }
+            finally{
+                flush();
             }
         }
         scanner.close();
     }
 
+    /**
+     * Runs every command in a file, until the end of the file or the system
+     * is terminated. The file is read through a FileChannel with a large
+     * buffer, and the responses go to the writer in large blocks, which is
+     * flushed once at the end. The bytes written are the same as those
+     * printed by run() for the same commands.
+     *
+     * @param commands path of the file of commands, one per line
+     * @param writer where the responses are written
+     * @throws IOException if the file cannot be read or the writer fails
+     */
+    public void runBatch(Path commands, Writer writer) throws IOException {
+        try (FileChannel channel = FileChannel.open(commands, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     Channels.newReader(channel, Charset.defaultCharset()), READ_BUFFER)) {
+            boolean isActive = true;
+            println("Vehicle Management System is live.");
+            try{
+                String request;
+                while(isActive && (request = reader.readLine()) != null){
+                    request = request.trim();
+                    if(request.isEmpty()) continue;
+                    isActive = execute(request);
+                    if(this.out.length() >= FLUSH_THRESHOLD || isCommitDue()){
+                        drain(writer);
+                    }
+                }
+            }
+            finally{
+                drain(writer);
+                writer.flush();
+            }
+        }
+    }
+
+    /**
+     * Runs every command in a file on three threads: one reads and splits
+     * the lines, this thread runs them in order, and one writes the
+     * responses. See CommandPipeline. The bytes written are the same as
+     * those written by runBatch() for the same file.
+     *
+     * @param commands path of the file of commands, one per line
+     * @param writer where the responses are written
+     * @throws IOException if the file cannot be read or the writer fails
+     */
+    public void runPipelined(Path commands, Writer writer) throws IOException {
+        CommandTokenizer ownTokenizer = this.tokenizer;
+        StringBuilder ownOut = this.out;
+        try (FileChannel channel = FileChannel.open(commands, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(
+                     Channels.newReader(channel, Charset.defaultCharset()), READ_BUFFER)) {
+            println("Vehicle Management System is live.");
+            drain(writer);
+            new CommandPipeline(this).run(reader, writer);
+        }
+        finally{
+            this.tokenizer = ownTokenizer;
+            this.out = ownOut;
+        }
+    }
+
+    /**
+     * Finds the command letter of a request, the first character of the
+     * upper-cased request.
+     *
+     * @param request the trimmed, non-empty command line
+     * @return the command letter
+     */
+    static char commandOf(String request){
+        char first = request.charAt(0);
+        if(first < 0x80){
+            return (first >= 'a' && first <= 'z') ? (char) (first - 'a' + 'A') : first;
+        }
+        return request.toUpperCase().charAt(0); //some letters upper-case to more than one char
+    }
+
+    /**
+     * Splits a request into tokens the way its command reads them: add and
+     * delete split on single spaces; book, find, cancel, and return split on
+     * runs of whitespace. Other commands read the request directly.
+     *
+     * @param command the command letter of the request
+     * @param request the trimmed, non-empty command line
+     * @param tokens the tokenizer to split the request into
+     */
+    static void tokenize(char command, String request, CommandTokenizer tokens){
+        switch(command) {
+            case 'A', 'D' -> tokens.splitOnSpace(request);
+            case 'B', 'F', 'C', 'R' -> tokens.splitOnWhitespace(request);
+            default -> { }
+        }
+    }
+
+    /**
+     * Runs one command, appending its responses to the output buffer.
+     *
+     * @param request the trimmed, non-empty command line
+     * @return false if the command terminated the system, true otherwise
+     */
+    private boolean execute(String request){
+        char command = commandOf(request);
+        tokenize(command, request, this.tokenizer);
+        return dispatch(command, request);
+    }
+
+    /**
+     * Runs one command that has already been split, appending its responses
+     * to the given buffer. Used by CommandPipeline, which splits commands on
+     * another thread.
+     *
+     * @param command the command letter of the request
+     * @param request the trimmed, non-empty command line
+     * @param tokens the tokenizer the request was split into
+     * @param out the buffer the responses are appended to
+     * @return false if the command terminated the system, true otherwise
+     */
+    boolean execute(char command, String request, CommandTokenizer tokens, StringBuilder out){
+        this.tokenizer = tokens;
+        this.out = out;
+        return dispatch(command, request);
+    }
+
+    /**
+     * Sends a command to its handler, timing it and recording it in the
+     * metrics under its type and outcome. A command that throws is recorded
+     * as an ERROR before the exception is passed on.
+     *
+     * @param command the command letter of the request
+     * @param request the trimmed, non-empty command line
+     * @return false if the command terminated the system, true otherwise
+     */
+    private boolean dispatch(char command, String request){
+        this.outcome = Outcome.OK;
+        long start = System.nanoTime();
+        try{
+            return handle(command, request);
+        }
+        catch(RuntimeException | Error e){
+            this.outcome = Outcome.ERROR;
+            throw e;
+        }
+        finally{
+            this.metrics.record(CommandType.of(command, request), this.outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Runs a command's handler.
+     *
+     * @param command the command letter of the request
+     * @param request the trimmed, non-empty command line
+     * @return false if the command terminated the system, true otherwise
+     */
+    private boolean handle(char command, String request){
+        boolean isActive = true;
+        switch(command) {
+            case 'A': // add vehicle command
+                handleAddCommand(request);
+                break;
+            case 'D': // delete vehicle command
+                handleDeleteCommand(request);
+                break;
+            case 'B': // book vehicle command
+                handleBookingCommand(request);
+                break;
+            case 'F': // find available vehicles command
+                handleFindCommand(request);
+                break;
+            case 'C': // cancel booking command
+                handleCancel(request);
+                break;
+            case 'R': // return vehicle command
+                handleReturn(request);
+                break;
+            case 'P': // print command
+                String pCommand = request.substring(0,2);
+                handlePrint(pCommand);
+                break;
+            case 'Q': // quit command
+                isActive = handleQuit(request);
+                break;
+            default:
+                reject(Outcome.INVALID_COMMAND, "Invalid command. Please try again.");
+                break;
+        }
+        return isActive;
+    }
+
+    /**
+     * Checks whether the journal has enough waiting records that they
+     * should be committed now.
+     *
+     * @return true if the journal should be committed, false otherwise
+     */
+    boolean isCommitDue(){
+        return this.journal != null && this.journal.isCommitDue();
+    }
+
+    /**
+     * Commits the journal's waiting records, if journaling. Called before
+     * the responses of the commands that made them are written out.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    void commitJournal() throws IOException {
+        if(this.journal != null){
+            this.journal.commit();
+        }
+    }
+
+    /**
+     * Commits the journal, then prints the output buffer to the console and
+     * empties it.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    private void flush() throws IOException {
+        commitJournal();
+        System.out.print(this.out);
+        this.out.setLength(0);
+    }
+
+    /**
+     * Commits the journal, then writes the output buffer to a writer and
+     * empties it.
+     *
+     * @param writer where the buffer is written
+     * @throws IOException if the journal or the writer fails
+     */
+    private void drain(Writer writer) throws IOException {
+        commitJournal();
+        writer.append(this.out);
+        this.out.setLength(0);
+    }
+
+    /**
+     * Appends text to the output buffer.
+     *
+     * @param text the text to append
+     */
+    private void print(String text){
+        this.out.append(text);
+    }
+
+    /**
+     * Appends a line to the output buffer, ended as println() would end it.
+     *
+     * @param line the line to append
+     */
+    private void println(String line){
+        this.out.append(line).append(NEWLINE);
+    }
+
+    /**
+     * Rejects the command being run: records why for the metrics and appends
+     * the message saying so to the output buffer.
+     *
+     * @param reason why the command was rejected
+     * @param line the message to append
+     */
+    private void reject(Outcome reason, String line){
+        this.outcome = reason;
+        println(line);
+    }
+
     private void handleAddCommand(String request){
-        System.out.print("> ");
-        String[] vehicleInfo = request.split(" ");
+        print("> ");
+        CommandTokenizer vehicleInfo = this.tokenizer;
 
         try{
             // check if request is properly formatted for add command
-            if(vehicleInfo.length != 5){
-                System.out.println("a - invalid command!");
+            if(vehicleInfo.getCount() != 5){
+                reject(Outcome.INVALID_COMMAND, "a - invalid command!");
                 return;
             }
-            String plate = vehicleInfo[1];
-            String dateString = vehicleInfo[2];
-            String[] dateInfo = dateString.split("/");
-            Date date = new Date(Integer.parseInt(dateInfo[0]),
-                    Integer.parseInt(dateInfo[1]), Integer.parseInt(dateInfo[2]));
-            Make make = Make.valueOf(vehicleInfo[3].toUpperCase());
-            int mileage = Integer.parseInt(vehicleInfo[4]);
+            String plate = vehicleInfo.token(1);
+            Date date = vehicleInfo.parseDate(2);
+            Make make = vehicleInfo.parseMake(3);
+            int mileage = vehicleInfo.parseInt(4);
 
             // check if vehicle is in fleet already
 //            if(fleet.contains(fleet.searchByPlate(plate))){
-//                System.out.println("Vehicle is already in Fleet. Cannot be added. ");
+//                println("Vehicle is already in Fleet. Cannot be added. ");
 //                return;
 //            }
 
             // checks if mileage is valid
             if(mileage <= 0){
-                System.out.println(mileage + " - invalid mileage.");
+                reject(Outcome.INVALID_MILEAGE, mileage + " - invalid mileage.");
                 return;
             }
 
             // checks if date is valid and not in the future
             if(!date.isValid()){
-                System.out.println(date + " - invalid calendar date.");
+                reject(Outcome.INVALID_DATE, date + " - invalid calendar date.");
                 return;
             }
             if(date.isTodayOrFuture()){
-                System.out.println(date + " - is today or future date.");
+                reject(Outcome.DATE_NOT_ALLOWED, date + " - is today or future date.");
                 return;
             }
 
             Vehicle addedVehicle = new Vehicle(plate, date, make, mileage);
+            if(journal != null) journal.logAdd(addedVehicle);
             fleet.add(addedVehicle);
-            System.out.println(addedVehicle + " has been added to the fleet.");
+            addedVehicle.appendTo(this.out).append(" has been added to the fleet.").append(NEWLINE);
         }
         catch (NumberFormatException e){
-            System.out.println("ERROR: Invalid number format for date or mileage.");
+            reject(Outcome.INVALID_NUMBER, "ERROR: Invalid number format for date or mileage.");
         }
         catch (IllegalArgumentException e){
-            System.out.println(vehicleInfo[3] + " - invalid make.");
+            reject(Outcome.INVALID_MAKE, vehicleInfo.token(3) + " - invalid make.");
         }
     }
 
     private void handleDeleteCommand(String request){
-        System.out.print("> ");
-        String[] deleteParts = request.split(" ");
+        print("> ");
+        CommandTokenizer deleteParts = this.tokenizer;
 
         // check if request is correctly formatted for delete commands
-        if(deleteParts.length != 2){
-            System.out.println("d - invalid command!");
+        if(deleteParts.getCount() != 2){
+            reject(Outcome.INVALID_COMMAND, "d - invalid command!");
             return;
         }
 
-        String deletePlate = deleteParts[1];
+        String deletePlate = deleteParts.token(1);
         Vehicle vehicle = fleet.searchByPlate(deletePlate);
         boolean isInFleet = (vehicle != null);
 
         // check if vehicle is in fleet, so it can be deleted
         if(!isInFleet){
-            System.out.println(deletePlate + " is not in the fleet.");
+            reject(Outcome.NOT_IN_FLEET, deletePlate + " is not in the fleet.");
             return;
         }
 
@@ -135,138 +445,158 @@ public class Frontend {
 
         // check if vehicle has bookings before deleting
         if(hasBookings){
-            System.out.println(deletePlate + " - has existing bookings; cannot be resolved");
+            reject(Outcome.HAS_BOOKINGS, deletePlate + " - has existing bookings; cannot be resolved");
             return;
         }
 
+        if(journal != null) journal.logDelete(deletePlate);
         fleet.remove(vehicle);
-        System.out.println(vehicle + " has been removed from the fleet.");
+        vehicle.appendTo(this.out).append(" has been removed from the fleet.").append(NEWLINE);
     }
 
     private void handleBookingCommand(String request){
-        System.out.print("> ");
-        String[] bookingParts = request.split("\\s+");
+        print("> ");
+        CommandTokenizer bookingParts = this.tokenizer;
 
         try{
 
             // check if request is properly formatted for booking command
-            if(bookingParts.length != 5){
-                System.out.println("b - invalid command!");
+            if(bookingParts.getCount() != 5){
+                reject(Outcome.INVALID_COMMAND, "b - invalid command!");
                 return;
             }
 
-            String beginString = bookingParts[1];
-            String[] beginInfo = beginString.split("/");
-            Date beginDate = new Date(Integer.parseInt(beginInfo[0]), Integer.parseInt(beginInfo[1]),
-                    Integer.parseInt(beginInfo[2]));
-
-            String endString = bookingParts[2];
-            String[] endInfo = endString.split("/");
-            Date endDate = new Date(Integer.parseInt(endInfo[0]), Integer.parseInt(endInfo[1]),
-                    Integer.parseInt(endInfo[2]));
+            Date beginDate = bookingParts.parseDate(1);
+            Date endDate = bookingParts.parseDate(2);
 
-            String bookingPlate = bookingParts[3];
+            String bookingPlate = bookingParts.token(3);
             Vehicle bookedVehicle = fleet.searchByPlate(bookingPlate);
 
-            Employee bookedBy = Employee.valueOf(bookingParts[4].toUpperCase());
+            Employee bookedBy = bookingParts.parseEmployee(4);
 
             // checks if both dates are valid
             if(!beginDate.isValid()){
-                System.out.println(beginDate + " - beginning date is not a valid calendar date.");
+                reject(Outcome.INVALID_DATE, beginDate + " - beginning date is not a valid calendar date.");
                 return;
             }
 
             if(!endDate.isValid()){
-                System.out.println(endDate + " - ending date is not a valid calendar date.");
+                reject(Outcome.INVALID_DATE, endDate + " - ending date is not a valid calendar date.");
                 return;
             }
 
             if(!beginDate.isTodayOrFuture()){
-                System.out.println(beginDate + " beginning date is not today or a future date.");
+                reject(Outcome.DATE_NOT_ALLOWED, beginDate + " beginning date is not today or a future date.");
                 return;
             }
 
             // checks if the end date is before the start date
             if(endDate.compareTo(beginDate) < 0){
-                System.out.println(endDate + " - ending date must be equal or after the beginning date "
+                reject(Outcome.END_BEFORE_BEGIN, endDate + " - ending date must be equal or after the beginning date "
                                 + beginDate);
                 return;
             }
 
             // checks if vehicle being requested exists
             if(bookedVehicle == null){
-                System.out.println(bookingPlate + " is not in the fleet.");
+                reject(Outcome.NOT_IN_FLEET, bookingPlate + " is not in the fleet.");
                 return;
             }
 
-            // checks on availability of vehicle
-            if(!reservation.isAvailable(bookingPlate, beginDate, endDate)){
-                System.out.println(bookingPlate + " - booking with " + beginDate + " ~ " + endDate + " not available.");
+            Booking addedBooking = new Booking(beginDate, endDate, bookedBy, bookedVehicle);
+
+            // checks the vehicle's availability, the employee's other bookings, how far in
+            // advance, and how long, then books, all in one step
+            switch(reservation.tryBook(addedBooking)) {
+                case NOT_AVAILABLE -> reject(Outcome.NOT_AVAILABLE, bookingPlate + " - booking with " + beginDate + " ~ " + endDate + " not available.");
+                case EMPLOYEE_CONFLICT -> reject(Outcome.EMPLOYEE_CONFLICT, bookedBy.name() + " - has an existing booking conflicting with beginning date " + beginDate);
+                case TOO_FAR_IN_ADVANCE -> reject(Outcome.TOO_FAR_IN_ADVANCE, beginDate + " - beginning date is beyond 3 months.");
+                case TOO_LONG -> reject(Outcome.TOO_LONG, beginDate + " ~ " + endDate + " - duration more than a week.");
+                default -> {
+                    if(journal != null) journal.logBook(addedBooking);
+                    addedBooking.appendTo(this.out).append(" booked.").append(NEWLINE);
+                }
+            }
+        }
+        catch(NumberFormatException e){
+            reject(Outcome.INVALID_NUMBER, "ERROR: Invalid number format for date.");
+        }
+        catch (IllegalArgumentException e){
+            reject(Outcome.INVALID_EMPLOYEE, bookingParts.token(4) + " not an eligible employee to book.");
+        }
+    }
+
+    private void handleFindCommand(String request){
+        print("> ");
+        CommandTokenizer findParts = this.tokenizer;
+
+        try{
+            // check if request is properly formatted for find command, the make is optional
+            if(findParts.getCount() != 3 && findParts.getCount() != 4){
+                reject(Outcome.INVALID_COMMAND, "f - invalid command!");
                 return;
             }
 
-            // checks if employee is available for the request booking
-            if(reservation.hasTimeConflict(bookedBy, beginDate, endDate)){
-                System.out.println(bookingParts[4].toUpperCase() + " - has an existing booking conflicting with beginning date " + beginDate);
+            Date beginDate = findParts.parseDate(1);
+            Date endDate = findParts.parseDate(2);
+
+            Make make = null;
+            if(findParts.getCount() == 4){
+                make = findParts.parseMake(3);
+            }
+
+            // checks if both dates are valid
+            if(!beginDate.isValid()){
+                reject(Outcome.INVALID_DATE, beginDate + " - beginning date is not a valid calendar date.");
                 return;
             }
 
-            Booking addedBooking = new Booking(beginDate, endDate, bookedBy, bookedVehicle);
+            if(!endDate.isValid()){
+                reject(Outcome.INVALID_DATE, endDate + " - ending date is not a valid calendar date.");
+                return;
+            }
 
-            // checks if booking is either too far in advance
-            if(addedBooking.isTooFarInAdvance()){
-                System.out.println(beginDate + " - beginning date is beyond 3 months.");
+            if(!beginDate.isTodayOrFuture()){
+                reject(Outcome.DATE_NOT_ALLOWED, beginDate + " beginning date is not today or a future date.");
                 return;
             }
 
-            // checks if booking is too long
-            if(addedBooking.isTooLong()){
-                System.out.println(beginDate + " ~ " + endDate + " - duration more than a week.");
+            // checks if the end date is before the start date
+            if(endDate.compareTo(beginDate) < 0){
+                reject(Outcome.END_BEFORE_BEGIN, endDate + " - ending date must be equal or after the beginning date "
+                        + beginDate);
                 return;
             }
 
-            reservation.add(addedBooking);
-            System.out.println(addedBooking + " booked.");
+            fleet.printAvailable(this.out, reservation.getBookedPlates(beginDate, endDate), make, beginDate, endDate);
         }
         catch(NumberFormatException e){
-            System.out.println("ERROR: Invalid number format for date.");
+            reject(Outcome.INVALID_NUMBER, "ERROR: Invalid number format for date.");
         }
         catch (IllegalArgumentException e){
-            System.out.println(bookingParts[4] + " not an eligible employee to book.");
+            reject(Outcome.INVALID_MAKE, findParts.token(3) + " - invalid make.");
         }
     }
 
     private void handleCancel(String line) {
-        System.out.print("> ");
+        print("> ");
         try {
-            String[] parts = line.split("\\s+");
-            if (parts.length != 4) {
-                System.out.println("c - invalid command!");
+            CommandTokenizer parts = this.tokenizer;
+            if (parts.getCount() != 4) {
+                reject(Outcome.INVALID_COMMAND, "c - invalid command!");
                 return;
             }
 
-            // Parse begin date
-            String[] beginInfo = parts[1].split("/");
-            Date begin = new Date(
-                    Integer.parseInt(beginInfo[0]),
-                    Integer.parseInt(beginInfo[1]),
-                    Integer.parseInt(beginInfo[2])
-            );
+            // Parse begin and end dates
+            Date begin = parts.parseDate(1);
+            Date end = parts.parseDate(2);
 
-            // Parse end date
-            String[] endInfo = parts[2].split("/");
-            Date end = new Date(
-                    Integer.parseInt(endInfo[0]),
-                    Integer.parseInt(endInfo[1]),
-                    Integer.parseInt(endInfo[2])
-            );
-
-            String plate = parts[3];
+            String plate = parts.token(3);
 
             // Build a "dummy booking" for lookup
             Vehicle dummyVehicle = fleet.searchByPlate(plate);
             if (dummyVehicle == null) {
-                System.out.println("Booking cancellation failed: vehicle not found in fleet.");
+                reject(Outcome.NOT_IN_FLEET, "Booking cancellation failed: vehicle not found in fleet.");
                 return;
             }
 
@@ -274,67 +604,65 @@ public class Frontend {
             Booking dummyBooking = new Booking(begin, end, null, dummyVehicle);
 
             if (reservation.contains(dummyBooking)) {
+                if(journal != null) journal.logCancel(dummyBooking);
                 reservation.remove(dummyBooking);
-                System.out.println(plate + ":" + begin + " ~ " + end + " has been canceled.");
+                println(plate + ":" + begin + " ~ " + end + " has been canceled.");
             } else {
-                System.out.println(plate + ":" + begin + " ~ " + end + " - cannot find the booking.");
+                reject(Outcome.NO_BOOKING, plate + ":" + begin + " ~ " + end + " - cannot find the booking.");
             }
         } catch (Exception e) {
-            System.out.println("ERROR: Invalid date or booking format.");
+            reject(Outcome.INVALID_FORMAT, "ERROR: Invalid date or booking format.");
         }
     }
 
     private void handleReturn(String line) {
-        System.out.print("> ");
+        print("> ");
         try {
-            String[] parts = line.split("\\s+");
-            if (parts.length != 4) {
-                System.out.println("r - invalid command!");
+            CommandTokenizer parts = this.tokenizer;
+            if (parts.getCount() != 4) {
+                reject(Outcome.INVALID_COMMAND, "r - invalid command!");
                 return;
             }
 
             // Parse end date
-            String[] endInfo = parts[1].split("/");
-            Date endDate = new Date(
-                    Integer.parseInt(endInfo[0]),
-                    Integer.parseInt(endInfo[1]),
-                    Integer.parseInt(endInfo[2])
-            );
+            Date endDate = parts.parseDate(1);
 
-            String plate = parts[2];
-            int newMileage = Integer.parseInt(parts[3]);
+            String plate = parts.token(2);
+            int newMileage = parts.parseInt(3);
 
             // Find vehicle
             Vehicle vehicle = fleet.searchByPlate(plate);
             if (vehicle == null) {
-                System.out.println("Return failed: vehicle not found in fleet.");
+                reject(Outcome.NOT_IN_FLEET, "Return failed: vehicle not found in fleet.");
                 return;
             }
 
             // Find earliest booking for that vehicle
             Booking booking = reservation.getEarliestBooking(plate);
             if (booking == null) {
-                System.out.println("Return failed: no active booking for this vehicle.");
+                reject(Outcome.NO_BOOKING, "Return failed: no active booking for this vehicle.");
                 return;
             }
 
             // Check that the end date matches the earliest booking
             if (!endDate.equals(booking.getEnd())) {
-                System.out.println(plate + " booked with ending date " + endDate + " - cannot find the booking.");
+                reject(Outcome.NO_BOOKING, plate + " booked with ending date " + endDate + " - cannot find the booking.");
                 return;
             }
 
             if(newMileage <= 0){
-                System.out.println(newMileage + " - invalid mileage.");
+                reject(Outcome.INVALID_MILEAGE, newMileage + " - invalid mileage.");
                 return;
             }
 
             // Validate mileage
             if (newMileage <= vehicle.getMileage()) {
-                System.out.println("Invalid mileage - current mileage: " + vehicle.getMileage() + " entered mileage: " + newMileage);
+                reject(Outcome.INVALID_MILEAGE, "Invalid mileage - current mileage: " + vehicle.getMileage() + " entered mileage: " + newMileage);
                 return;
             }
 
+            if(journal != null) journal.logReturn(plate, newMileage);
+
             // Create Trip and add to tripList
             Trip trip = new Trip(booking, vehicle.getMileage(), newMileage);
             triplist.add(trip);
@@ -348,35 +676,36 @@ public class Frontend {
             // Remove booking
             reservation.remove(booking);
 
-            System.out.println("Trip completed: " + plate + " " + booking.getBegin() + " ~ "+ endDate + " original mileage: " +
+            println("Trip completed: " + plate + " " + booking.getBegin() + " ~ "+ endDate + " original mileage: " +
                     originalMileage + " current mileage: " + newMileage + " " +
                     "mileage used: " + mileageUsed);
         } catch (NumberFormatException e) {
-            System.out.println("ERROR: Invalid number format for mileage or date.");
+            reject(Outcome.INVALID_NUMBER, "ERROR: Invalid number format for mileage or date.");
         } catch (Exception e) {
-            System.out.println("ERROR: Invalid return command format.");
+            reject(Outcome.INVALID_FORMAT, "ERROR: Invalid return command format.");
         }
     }
 
     private void handlePrint(String line) {
-        System.out.print("> ");
+        print("> ");
         switch (line) {
-            case "PF" -> fleet.printByMake();
-            case "PR" -> reservation.printByVehicle();
-            case "PD" -> reservation.printByDept();
-            case "PT" -> triplist.print();
-            default -> System.out.println(line + " - invalid command!");
+            case "PF" -> fleet.printByMake(this.out);
+            case "PR" -> reservation.printByVehicle(this.out);
+            case "PD" -> reservation.printByDept(this.out);
+            case "PT" -> triplist.print(this.out);
+            case "PM" -> metrics.print(this.out);
+            default -> reject(Outcome.INVALID_COMMAND, line + " - invalid command!");
         }
     }
 
     private boolean handleQuit(String line){
-        System.out.print("> ");
+        print("> ");
         if (line.equals("q")){
-            System.out.println("q - invalid command!");
+            reject(Outcome.INVALID_COMMAND, "q - invalid command!");
             return true;
         }
 
-        System.out.println("Vehicle Management System is terminated.");
+        println("Vehicle Management System is terminated.");
         return false;
     }
 
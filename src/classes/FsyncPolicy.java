@@ -0,0 +1,17 @@
+package classes;
+
+/**
+ * Enum for when the journal forces its records to disk.
+ * Whatever the policy, records are written to the journal file before the
+ * responses of the commands that made them are written out.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public enum FsyncPolicy {
+    /** Write and force the records of every command before its response. */
+    ALWAYS,
+    /** Write and force records in groups, once before each block of responses is written out. */
+    GROUP,
+    /** Write records in groups but never force them, leaving it to the operating system. */
+    NEVER
+}
@@ -0,0 +1,388 @@
+package classes;
+import java.util.function.Consumer;
+
+/**
+ * This class implements an interval tree of Booking objects.
+ * Bookings are kept in a balanced (AVL) binary search tree ordered by their
+ * beginning dates, then by their ending dates. Each node also remembers the
+ * latest ending date in its subtree, so an overlap query only walks one path
+ * from the root and costs O(log n). Nodes hold the dates in their packed int
+ * form (see Date.toPackedInt()), so the walk compares ints only.
+ * Overlap is inclusive: two bookings overlap if either one begins on or
+ * before the day the other one ends.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class IntervalTree {
+    /**
+     * Private inner class representing a single node of the tree.
+     * Includes a booking, the children, the height and the latest ending date
+     * found in the subtree rooted at the node.
+     */
+    private static class Node {
+        private Booking booking;
+        private int begin; //packed beginning date of the booking
+        private int end; //packed ending date of the booking
+        private Node left;
+        private Node right;
+        private int height;
+        private int maxEnd; //latest packed ending date in the subtree
+
+        /**
+         * Constructor for a leaf Node using 1 parameter.
+         *
+         * @param booking the Booking stored in the node
+         */
+        public Node(Booking booking) {
+            setBooking(booking);
+            this.height = 1;
+            this.maxEnd = this.end;
+        }
+
+        /**
+         * Stores a booking and its packed dates in the node.
+         *
+         * @param booking the Booking stored in the node
+         */
+        private void setBooking(Booking booking) {
+            this.booking = booking;
+            this.begin = booking.getBegin().toPackedInt();
+            this.end = booking.getEnd().toPackedInt();
+        }
+    }
+
+    private Node root;
+    private int size;
+    private boolean removed; //set by remove() once the target has been unlinked
+
+    /**
+     * Default constructor to create an empty IntervalTree object.
+     */
+    public IntervalTree() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    /**
+     * Getter for the number of bookings in the tree.
+     *
+     * @return the number of bookings
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether the tree holds any booking.
+     *
+     * @return true if the tree is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Adds a booking to the tree.
+     *
+     * @param booking the booking to be added
+     */
+    public void insert(Booking booking) {
+        this.root = insert(this.root, booking);
+        this.size++;
+    }
+
+    /**
+     * Removes one booking equal to the given booking from the tree.
+     *
+     * @param booking the booking to be removed
+     * @return true if a booking was removed, false if none was found
+     */
+    public boolean remove(Booking booking) {
+        this.removed = false;
+        this.root = remove(this.root, booking);
+        if (this.removed) {
+            this.size--;
+        }
+        return this.removed;
+    }
+
+    /**
+     * Checks whether any booking in the tree overlaps the given date range.
+     *
+     * @param begin beginning date of the range
+     * @param end ending date of the range
+     * @return true if an overlapping booking is found, false otherwise
+     */
+    public boolean overlaps(Date begin, Date end) {
+        int from = begin.toPackedInt();
+        int to = end.toPackedInt();
+        Node curr = this.root;
+        while (curr != null) {
+            if (curr.maxEnd < from) {
+                return false; //everything in this subtree ends before the range
+            }
+            if (curr.begin <= to && curr.end >= from) {
+                return true;
+            }
+            if (curr.left != null && curr.left.maxEnd >= from) {
+                curr = curr.left;
+            }
+            else if (curr.begin <= to) {
+                curr = curr.right;
+            }
+            else {
+                return false; //the right subtree begins even later
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits every booking in the tree, in order of beginning date.
+     *
+     * @param action the action to be performed on each booking
+     */
+    public void forEach(Consumer<Booking> action) {
+        forEach(this.root, action);
+    }
+
+    /**
+     * Visits every booking in the tree that overlaps the given date range,
+     * in order of beginning date.
+     *
+     * @param begin beginning date of the range
+     * @param end ending date of the range
+     * @param action the action to be performed on each overlapping booking
+     */
+    public void forEachOverlap(Date begin, Date end, Consumer<Booking> action) {
+        forEachOverlap(this.root, begin.toPackedInt(), end.toPackedInt(), action);
+    }
+
+    /**
+     * Helper method to forEach() that walks a subtree in order.
+     *
+     * @param node root of the subtree
+     * @param action the action to be performed on each booking
+     */
+    private static void forEach(Node node, Consumer<Booking> action) {
+        while (node != null) {
+            forEach(node.left, action);
+            action.accept(node.booking);
+            node = node.right;
+        }
+    }
+
+    /**
+     * Helper method to forEachOverlap() that walks the parts of a subtree
+     * which can hold an overlapping booking.
+     *
+     * @param node root of the subtree
+     * @param from packed beginning date of the range
+     * @param to packed ending date of the range
+     * @param action the action to be performed on each overlapping booking
+     */
+    private static void forEachOverlap(Node node, int from, int to, Consumer<Booking> action) {
+        while (node != null && node.maxEnd >= from) {
+            forEachOverlap(node.left, from, to, action);
+            if (node.begin > to) {
+                return; //this booking and the right subtree begin after the range
+            }
+            if (node.end >= from) {
+                action.accept(node.booking);
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * Orders a booking against the booking of a node by beginning date, then
+     * by ending date.
+     *
+     * @param begin packed beginning date of the booking
+     * @param end packed ending date of the booking
+     * @param node the node to compare with
+     * @return negative if the booking comes first, positive if the node comes first, 0 on a tie
+     */
+    private static int compare(int begin, int end, Node node) {
+        if (begin != node.begin) {
+            return Integer.compare(begin, node.begin);
+        }
+        return Integer.compare(end, node.end);
+    }
+
+    /**
+     * Helper method to insert() that adds a booking below the given node.
+     *
+     * @param node root of the subtree
+     * @param booking the booking to be added
+     * @return the new root of the subtree
+     */
+    private Node insert(Node node, Booking booking) {
+        if (node == null) {
+            return new Node(booking);
+        }
+        if (compare(booking.getBegin().toPackedInt(), booking.getEnd().toPackedInt(), node) < 0) {
+            node.left = insert(node.left, booking);
+        }
+        else {
+            node.right = insert(node.right, booking);
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Helper method to remove() that unlinks a booking below the given node.
+     * Equal keys may sit on either side of a node after rotations, so both
+     * subtrees are searched on a tie.
+     *
+     * @param node root of the subtree
+     * @param booking the booking to be removed
+     * @return the new root of the subtree
+     */
+    private Node remove(Node node, Booking booking) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(booking.getBegin().toPackedInt(), booking.getEnd().toPackedInt(), node);
+        if (cmp < 0) {
+            node.left = remove(node.left, booking);
+        }
+        else if (cmp > 0) {
+            node.right = remove(node.right, booking);
+        }
+        else if (node.booking.equals(booking)) {
+            this.removed = true;
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            node.setBooking(successor.booking);
+            node.right = removeMin(node.right);
+        }
+        else {
+            node.left = remove(node.left, booking);
+            if (!this.removed) {
+                node.right = remove(node.right, booking);
+            }
+        }
+        return rebalance(node);
+    }
+
+    /**
+     * Helper method to remove() that unlinks the leftmost node of a subtree.
+     *
+     * @param node root of the subtree
+     * @return the new root of the subtree
+     */
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    /**
+     * Getter for the height of a possibly empty subtree.
+     *
+     * @param node root of the subtree
+     * @return the height, 0 for an empty subtree
+     */
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    /**
+     * Recomputes the height and latest ending date of a node from its children.
+     *
+     * @param node the node to be updated
+     */
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        int maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+
+    /**
+     * Rotates the subtree rooted at the node to the right.
+     *
+     * @param node root of the subtree
+     * @return the new root of the subtree
+     */
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Rotates the subtree rooted at the node to the left.
+     *
+     * @param node root of the subtree
+     * @return the new root of the subtree
+     */
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    /**
+     * Restores the AVL balance of a node whose children may have changed.
+     *
+     * @param node root of the subtree
+     * @return the new root of the subtree
+     */
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    public static void main(String[] args) {
+        Vehicle v1 = new Vehicle("123ABC", new Date(1, 2, 2020), Make.FORD, 50000);
+
+        IntervalTree tree = new IntervalTree();
+        tree.insert(new Booking(new Date(10, 1, 2025), new Date(10, 3, 2025), Employee.KAUR, v1));
+        tree.insert(new Booking(new Date(10, 10, 2025), new Date(10, 12, 2025), Employee.LIM, v1));
+        tree.insert(new Booking(new Date(9, 1, 2025), new Date(9, 30, 2025), Employee.PATEL, v1));
+
+        System.out.println(tree.overlaps(new Date(10, 3, 2025), new Date(10, 4, 2025))); // true (shares 10/3)
+        System.out.println(tree.overlaps(new Date(10, 4, 2025), new Date(10, 9, 2025))); // false
+        System.out.println(tree.overlaps(new Date(8, 1, 2025), new Date(12, 1, 2025))); // true
+
+        tree.remove(new Booking(new Date(10, 1, 2025), new Date(10, 3, 2025), null, v1));
+        System.out.println(tree.overlaps(new Date(10, 2, 2025), new Date(10, 2, 2025))); // false
+        System.out.println(tree.getSize()); // 2
+    }
+}
@@ -0,0 +1,687 @@
+package classes;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * This class implements the write-ahead journal of changes to the fleet,
+ * reservations, and trips.
+ * Each successful add, delete, book, cancel, or return command appends one
+ * binary record, and the journal is replayed straight into the containers
+ * when it is opened, so no command text is parsed and nothing is printed.
+ * Records are collected in memory and written (and forced, depending on the
+ * FsyncPolicy) when commit() is called, so many commands share one write.
+ * Every record carries its length and a CRC32C checksum, and a torn or
+ * damaged record at the end of the file, left by a crash, is cut off.
+ * So that startup does not replay all of history, the journal is kept in
+ * numbered generations. Once the current file grows large enough, and when
+ * the journal is closed, the containers are captured in a Snapshot, the
+ * current file is renamed to end in its generation number, and a new file
+ * is started with the next generation. The snapshot is written in the
+ * background to the journal's path plus ".snap", after which the renamed
+ * files it includes are deleted. Opening loads the snapshot, then replays
+ * any renamed files newer than it, then the current file.
+ * Each file starts with a header:
+ * int magic, short version, long generation. Each record is: int length,
+ * byte type, fields, int checksum of the type and fields. Dates are written
+ * as longs (see Date.toPackedLong()), so every year comes back as it was
+ * acknowledged, plates as an int length and UTF-8 bytes, and makes and
+ * employees by ordinal.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class Journal implements Closeable {
+    // Define constants for the file header
+    private static final int MAGIC = 0x564D534A; //"VMSJ"
+    private static final short VERSION = 3;
+    private static final int HEADER_SIZE = 14;
+
+    // Define constants for the record types
+    private static final byte ADD = 1;
+    private static final byte DELETE = 2;
+    private static final byte BOOK = 3;
+    private static final byte CANCEL = 4;
+    private static final byte RETURN = 5;
+
+    // Define constants for the sizes of the buffers and records, in bytes
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int GROUP_SIZE = 1 << 20; //pending bytes that make a commit due
+    private static final int MAX_RECORD = 1 << 24;
+    private static final long SNAPSHOT_SIZE = 1L << 26; //file size that starts a new snapshot
+
+    private static final Make[] MAKES = Make.values();
+    private static final Employee[] EMPLOYEES = Employee.values();
+
+    private final Path path; //path of the current file
+    private final Path snapshotPath;
+    private final FsyncPolicy policy;
+    private final Fleet fleet;
+    private final Reservation reservation;
+    private final TripList triplist;
+    private final CRC32C checksum;
+    private FileChannel channel; //the current file
+    private long generation; //generation of the current file
+    private ByteBuffer buffer; //records not yet written
+    private int recordStart; //position in buffer of the record being built
+    private IOException failure; //set once a write fails, after which nothing more is written
+    private Thread snapshotWriter; //writes the latest snapshot in the background
+    private volatile IOException snapshotFailure; //set if a background snapshot fails
+
+    /**
+     * Private constructor for a journal positioned at the end of its current file.
+     *
+     * @param path path of the current file
+     * @param channel the open current file
+     * @param generation generation of the current file
+     * @param policy when records are forced to disk
+     * @param fleet the fleet the journal records
+     * @param reservation the reservations the journal records
+     * @param triplist the trips the journal records
+     */
+    private Journal(Path path, FileChannel channel, long generation, FsyncPolicy policy, Fleet fleet,
+                    Reservation reservation, TripList triplist) {
+        this.path = path;
+        this.snapshotPath = snapshotPath(path);
+        this.channel = channel;
+        this.generation = generation;
+        this.policy = policy;
+        this.fleet = fleet;
+        this.reservation = reservation;
+        this.triplist = triplist;
+        this.checksum = new CRC32C();
+        this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * Opens a journal, creating it if needed, and loads its snapshot and
+     * replays its records into the containers, which should be empty.
+     * A damaged record at the end is cut off, and new records are appended
+     * after the last good one.
+     *
+     * @param path path of the current journal file
+     * @param policy when records are forced to disk
+     * @param fleet the fleet to replay into
+     * @param reservation the reservations to replay into
+     * @param triplist the trips to replay into
+     * @return the open journal
+     * @throws IOException if the files cannot be used, are not a journal, or
+     *  a record does not match the replayed state
+     */
+    public static Journal open(Path path, FsyncPolicy policy, Fleet fleet, Reservation reservation,
+                               TripList triplist) throws IOException {
+        long generation = Snapshot.load(snapshotPath(path), fleet, reservation, triplist);
+        long covered = generation;
+        for (long archived : listArchived(path)) {
+            Path segment = archivePath(path, archived);
+            if (archived <= covered) {
+                Files.delete(segment);
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                RecordReader in = new RecordReader(channel);
+                if (readHeader(in) != archived) {
+                    throw new IOException(segment + " does not hold generation " + archived);
+                }
+                replay(in, fleet, reservation, triplist);
+            }
+            generation = archived;
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long end;
+            if (channel.size() < HEADER_SIZE) {
+                // a new file, or one whose header was cut off before any record
+                generation++;
+                channel.truncate(0);
+                writeHeader(channel, generation);
+                end = HEADER_SIZE;
+            }
+            else {
+                RecordReader in = new RecordReader(channel);
+                long current = readHeader(in);
+                if (current <= generation) {
+                    throw new IOException(path + " holds generation " + current
+                            + ", which is not newer than generation " + generation);
+                }
+                generation = current;
+                end = replay(in, fleet, reservation, triplist);
+                if (channel.size() > end) {
+                    channel.truncate(end);
+                }
+            }
+            channel.position(end);
+            return new Journal(path, channel, generation, policy, fleet, reservation, triplist);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the path of the snapshot that goes with a journal.
+     *
+     * @param path path of the current journal file
+     * @return path of the snapshot file
+     */
+    private static Path snapshotPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".snap");
+    }
+
+    /**
+     * Finds the path a journal file is renamed to once it is no longer current.
+     *
+     * @param path path of the current journal file
+     * @param generation generation of the renamed file
+     * @return path of the renamed file
+     */
+    private static Path archivePath(Path path, long generation) {
+        return path.resolveSibling(path.getFileName() + "." + generation);
+    }
+
+    /**
+     * Lists the generations of the renamed journal files, oldest first.
+     *
+     * @param path path of the current journal file
+     * @return the generations found
+     * @throws IOException if the directory cannot be read
+     */
+    private static long[] listArchived(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + ".";
+        ArrayList<Long> found = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory,
+                entry -> entry.getFileName().toString().startsWith(prefix))) {
+            for (Path entry : entries) {
+                String suffix = entry.getFileName().toString().substring(prefix.length());
+                if (!suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit)) {
+                    found.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        long[] generations = new long[found.size()];
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = found.get(i);
+        }
+        Arrays.sort(generations);
+        return generations;
+    }
+
+    /**
+     * Writes the header of a new journal file.
+     *
+     * @param channel the new file
+     * @param generation generation of the file
+     * @throws IOException if the header cannot be written
+     */
+    private static void writeHeader(FileChannel channel, long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).putLong(generation);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    /**
+     * Reads and checks the header of a journal file.
+     *
+     * @param in the reader at the start of the file
+     * @return generation of the file
+     * @throws IOException if the file is not a journal
+     */
+    private static long readHeader(RecordReader in) throws IOException {
+        if (!in.fill(HEADER_SIZE) || in.buffer.getInt() != MAGIC) {
+            throw new IOException("not a journal file");
+        }
+        short version = in.buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported journal version " + version);
+        }
+        return in.buffer.getLong();
+    }
+
+    /**
+     * Helper method to open() that applies every good record in a file.
+     *
+     * @param in the reader, just past the header
+     * @return the offset just past the last good record
+     * @throws IOException if a record does not match the replayed state
+     */
+    private static long replay(RecordReader in, Fleet fleet, Reservation reservation,
+                               TripList triplist) throws IOException {
+        CRC32C checksum = new CRC32C();
+        long end = HEADER_SIZE;
+        while (in.fill(Integer.BYTES)) {
+            int length = in.buffer.getInt(in.buffer.position());
+            if (length <= 0 || length > MAX_RECORD || !in.fill(length + 2 * Integer.BYTES)) {
+                break;
+            }
+            ByteBuffer record = in.buffer;
+            int start = record.position() + Integer.BYTES;
+            checksum.reset();
+            checksum.update(record.array(), start, length);
+            if ((int) checksum.getValue() != record.getInt(start + length)) {
+                break;
+            }
+            record.position(start);
+            apply(record, fleet, reservation, triplist, end);
+            record.position(start + length + Integer.BYTES);
+            end += length + 2 * Integer.BYTES;
+        }
+        return end;
+    }
+
+    /**
+     * Helper method to replay() that applies one record to the containers,
+     * the same way the command that made it did.
+     *
+     * @param record the buffer, positioned at the record's type
+     * @param offset where the record starts in the file, for error messages
+     * @throws IOException if the record does not match the replayed state
+     */
+    private static void apply(ByteBuffer record, Fleet fleet, Reservation reservation,
+                              TripList triplist, long offset) throws IOException {
+        byte type = record.get();
+        switch (type) {
+            case ADD -> {
+                String plate = getString(record);
+                Date obtained = Date.ofPackedLong(record.getLong());
+                Make make = MAKES[record.get()];
+                fleet.add(new Vehicle(plate, obtained, make, record.getInt()));
+            }
+            case DELETE -> fleet.remove(findVehicle(fleet, getString(record), offset));
+            case BOOK -> {
+                Date begin = Date.ofPackedLong(record.getLong());
+                Date end = Date.ofPackedLong(record.getLong());
+                Vehicle vehicle = findVehicle(fleet, getString(record), offset);
+                reservation.add(new Booking(begin, end, EMPLOYEES[record.get()], vehicle));
+            }
+            case CANCEL -> {
+                Date begin = Date.ofPackedLong(record.getLong());
+                Date end = Date.ofPackedLong(record.getLong());
+                Vehicle vehicle = findVehicle(fleet, getString(record), offset);
+                reservation.remove(new Booking(begin, end, null, vehicle));
+            }
+            case RETURN -> {
+                Vehicle vehicle = findVehicle(fleet, getString(record), offset);
+                int newMileage = record.getInt();
+                Booking booking = reservation.getEarliestBooking(vehicle.getPlate());
+                if (booking == null) {
+                    throw new IOException("journal record at " + offset + " returns an unbooked vehicle");
+                }
+                triplist.add(new Trip(booking, vehicle.getMileage(), newMileage));
+                vehicle.setMileage(newMileage);
+                reservation.remove(booking);
+            }
+            default -> throw new IOException("unknown journal record type " + type + " at " + offset);
+        }
+    }
+
+    /**
+     * Helper method to apply() that finds the vehicle a record refers to.
+     *
+     * @throws IOException if the vehicle is not in the fleet
+     */
+    private static Vehicle findVehicle(Fleet fleet, String plate, long offset) throws IOException {
+        Vehicle vehicle = fleet.searchByPlate(plate);
+        if (vehicle == null) {
+            throw new IOException("journal record at " + offset + " refers to " + plate
+                    + ", which is not in the fleet");
+        }
+        return vehicle;
+    }
+
+    /**
+     * Reads a plate written by putString().
+     *
+     * @param record the buffer positioned at the plate
+     * @return the plate
+     */
+    private static String getString(ByteBuffer record) {
+        int length = record.getInt();
+        String value = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return value;
+    }
+
+    /**
+     * Records that a vehicle was added to the fleet.
+     *
+     * @param vehicle the vehicle that was added
+     */
+    public void logAdd(Vehicle vehicle) {
+        byte[] plate = vehicle.getPlate().getBytes(StandardCharsets.UTF_8);
+        begin(ADD, plate.length + 17);
+        putString(plate);
+        this.buffer.putLong(vehicle.getObtained().toPackedLong());
+        this.buffer.put((byte) vehicle.getMake().ordinal());
+        this.buffer.putInt(vehicle.getMileage());
+        end();
+    }
+
+    /**
+     * Records that a vehicle was removed from the fleet.
+     *
+     * @param plate the plate of the vehicle that was removed
+     */
+    public void logDelete(String plate) {
+        byte[] bytes = plate.getBytes(StandardCharsets.UTF_8);
+        begin(DELETE, bytes.length + 4);
+        putString(bytes);
+        end();
+    }
+
+    /**
+     * Records that a booking was made.
+     *
+     * @param booking the booking that was made
+     */
+    public void logBook(Booking booking) {
+        byte[] plate = booking.getVehicle().getPlate().getBytes(StandardCharsets.UTF_8);
+        begin(BOOK, plate.length + 21);
+        this.buffer.putLong(booking.getBegin().toPackedLong());
+        this.buffer.putLong(booking.getEnd().toPackedLong());
+        putString(plate);
+        this.buffer.put((byte) booking.getEmployee().ordinal());
+        end();
+    }
+
+    /**
+     * Records that a booking was canceled.
+     *
+     * @param booking the booking that was canceled
+     */
+    public void logCancel(Booking booking) {
+        byte[] plate = booking.getVehicle().getPlate().getBytes(StandardCharsets.UTF_8);
+        begin(CANCEL, plate.length + 20);
+        this.buffer.putLong(booking.getBegin().toPackedLong());
+        this.buffer.putLong(booking.getEnd().toPackedLong());
+        putString(plate);
+        end();
+    }
+
+    /**
+     * Records that a vehicle was returned, completing its earliest booking.
+     *
+     * @param plate the plate of the vehicle that was returned
+     * @param newMileage the mileage of the vehicle when it was returned
+     */
+    public void logReturn(String plate, int newMileage) {
+        byte[] bytes = plate.getBytes(StandardCharsets.UTF_8);
+        begin(RETURN, bytes.length + 8);
+        putString(bytes);
+        this.buffer.putInt(newMileage);
+        end();
+    }
+
+    /**
+     * Helper method that starts a record, making room for it in the buffer.
+     *
+     * @param type the type of the record
+     * @param fieldSize the number of bytes of fields that will follow
+     */
+    private void begin(byte type, int fieldSize) {
+        int size = fieldSize + 1 + 2 * Integer.BYTES;
+        if (this.buffer.remaining() < size) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(2 * this.buffer.capacity(),
+                    this.buffer.position() + size));
+            this.buffer.flip();
+            bigger.put(this.buffer);
+            this.buffer = bigger;
+        }
+        this.recordStart = this.buffer.position();
+        this.buffer.putInt(0);
+        this.buffer.put(type);
+    }
+
+    /**
+     * Helper method that ends a record, filling in its length and checksum.
+     */
+    private void end() {
+        int start = this.recordStart + Integer.BYTES;
+        int length = this.buffer.position() - start;
+        this.buffer.putInt(this.recordStart, length);
+        this.checksum.reset();
+        this.checksum.update(this.buffer.array(), start, length);
+        this.buffer.putInt((int) this.checksum.getValue());
+    }
+
+    /**
+     * Writes a plate as an int length and its bytes.
+     *
+     * @param bytes the UTF-8 bytes of the plate
+     */
+    private void putString(byte[] bytes) {
+        this.buffer.putInt(bytes.length);
+        this.buffer.put(bytes);
+    }
+
+    /**
+     * Checks whether enough records are waiting that they should be
+     * committed before any more responses are written out.
+     *
+     * @return true if commit() should be called, false otherwise
+     */
+    public boolean isCommitDue() {
+        int pending = this.buffer.position();
+        return pending > 0 && (this.policy == FsyncPolicy.ALWAYS || pending >= GROUP_SIZE);
+    }
+
+    /**
+     * Writes the waiting records to the file and, unless the policy is
+     * NEVER, forces them to disk. Once a write fails, every later commit
+     * fails too, since the file may no longer end on a whole record.
+     *
+     * @throws IOException if the records cannot be written
+     */
+    public void commit() throws IOException {
+        if (this.failure != null) {
+            throw new IOException("journal failed earlier", this.failure);
+        }
+        if (this.buffer.position() == 0) {
+            return;
+        }
+        try {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+            if (this.policy != FsyncPolicy.NEVER) {
+                this.channel.force(false);
+            }
+            if (this.channel.position() >= SNAPSHOT_SIZE
+                    && (this.snapshotWriter == null || !this.snapshotWriter.isAlive())) {
+                Snapshot image = rotate();
+                this.snapshotWriter = new Thread(() -> writeSnapshot(image), "snapshot-writer");
+                this.snapshotWriter.start();
+            }
+        }
+        catch (IOException e) {
+            this.failure = e;
+            throw e;
+        }
+    }
+
+    /**
+     * Captures the containers and moves on to a new journal file. Must be
+     * called on the thread that changes the containers, with no records
+     * waiting. The current file is forced, renamed to end in its generation
+     * number, and replaced by a new file with the next generation.
+     *
+     * @return the captured image, which includes every renamed file
+     * @throws IOException if the files cannot be renamed or created
+     */
+    private Snapshot rotate() throws IOException {
+        Snapshot image = Snapshot.capture(this.generation, this.fleet, this.reservation, this.triplist);
+        this.channel.force(false);
+        this.channel.close();
+        Files.move(this.path, archivePath(this.path, this.generation), StandardCopyOption.ATOMIC_MOVE);
+        this.generation++;
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        writeHeader(this.channel, this.generation);
+        this.channel.force(true);
+        return image;
+    }
+
+    /**
+     * Writes a snapshot, then deletes the renamed journal files it includes.
+     * A failure is kept and reported by close(); until then the renamed
+     * files are kept, so nothing is lost.
+     *
+     * @param image the captured containers
+     */
+    private void writeSnapshot(Snapshot image) {
+        try {
+            image.write(this.snapshotPath);
+            for (long archived : listArchived(this.path)) {
+                if (archived <= image.getGeneration()) {
+                    Files.deleteIfExists(archivePath(this.path, archived));
+                }
+            }
+        }
+        catch (IOException e) {
+            this.snapshotFailure = e;
+        }
+    }
+
+    /**
+     * Commits the waiting records, waits for a background snapshot, and, if
+     * anything was recorded since the last snapshot, writes a new one so the
+     * next start does not replay it. Then closes the file.
+     *
+     * @throws IOException if the records or snapshot cannot be written or the file closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.failure == null) {
+                commit();
+                if (this.snapshotWriter != null) {
+                    this.snapshotWriter.join();
+                }
+                if (this.channel.position() > HEADER_SIZE) {
+                    writeSnapshot(rotate());
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted waiting for the snapshot");
+        }
+        finally {
+            this.channel.close();
+        }
+        if (this.snapshotFailure != null) {
+            throw new IOException("snapshot could not be written", this.snapshotFailure);
+        }
+    }
+
+    /**
+     * Private inner class that reads a file through a growable buffer, so a
+     * whole record can be looked at in place.
+     */
+    private static class RecordReader {
+        private final FileChannel channel;
+        private ByteBuffer buffer; //kept ready for reading
+        private boolean isAtEnd;
+
+        /**
+         * Constructor for a reader at the start of the file.
+         *
+         * @param channel the file to read
+         * @throws IOException if the file cannot be positioned
+         */
+        private RecordReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+            channel.position(0);
+        }
+
+        /**
+         * Makes sure the buffer holds at least the given number of bytes,
+         * reading more of the file if needed.
+         *
+         * @param needed the number of bytes needed
+         * @return true if they are there, false if the file ends first
+         * @throws IOException if the file cannot be read
+         */
+        private boolean fill(int needed) throws IOException {
+            if (this.buffer.remaining() >= needed) {
+                return true;
+            }
+            if (this.isAtEnd) {
+                return false;
+            }
+            if (this.buffer.capacity() < needed) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, 2 * this.buffer.capacity()));
+                bigger.put(this.buffer);
+                this.buffer = bigger;
+            }
+            else {
+                this.buffer.compact();
+            }
+            while (this.buffer.position() < needed) {
+                if (this.channel.read(this.buffer) < 0) {
+                    this.isAtEnd = true;
+                    break;
+                }
+            }
+            this.buffer.flip();
+            return this.buffer.remaining() >= needed;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // replay round trip test: dates with years too large or too small to pack into an int
+        Path directory = Files.createTempDirectory("journal");
+        Path path = directory.resolve("vms.journal");
+        Fleet fleet = new Fleet();
+        Reservation reservation = new Reservation();
+        Journal journal = Journal.open(path, FsyncPolicy.NEVER, fleet, reservation, new TripList());
+        Vehicle far = new Vehicle("FAR1", new Date(1, 1, -5000000), Make.FORD, 100);
+        fleet.add(far);
+        journal.logAdd(far);
+        Booking booking = new Booking(new Date(1, 1, 5000000), new Date(1, 2, 5000000), Employee.KAUR, far);
+        reservation.add(booking);
+        journal.logBook(booking);
+        Booking canceled = new Booking(new Date(3, 1, 4194304), new Date(3, 2, 4194304), Employee.KAUR, far);
+        reservation.add(canceled);
+        journal.logBook(canceled);
+        reservation.remove(canceled);
+        journal.logCancel(canceled);
+        journal.commit();
+
+        // replay a copy of the file, as after a crash, so no snapshot is involved
+        Path copy = directory.resolve("copy.journal");
+        Files.copy(path, copy);
+        Fleet replayedFleet = new Fleet();
+        Reservation replayedReservation = new Reservation();
+        Journal replayed = Journal.open(copy, FsyncPolicy.NEVER, replayedFleet, replayedReservation, new TripList());
+        System.out.println(replayedFleet.searchByPlate("FAR1")); // FAR1:FORD:1/1/-5000000 [mileage:100]
+        System.out.println(replayedReservation.getSize()); // 1
+        System.out.println(replayedReservation.getEarliestBooking("FAR1")); // FAR1:FORD:1/1/-5000000 [mileage:100] [beginning 1/1/5000000 ending 1/2/5000000:KAUR]
+
+        replayed.close();
+        journal.close();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,130 @@
+package classes;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds, with buckets that grow with the
+ * latency: each power of two is split into 16 buckets of equal width, so a
+ * latency is reported to within about 6% of its value at any scale.
+ * Recording is one atomic increment and never allocates.
+ * Latencies over about 68 seconds are counted in the last bucket.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class LatencyHistogram {
+    // Define constants for the bucket layout: 16 buckets per power of two, up to 2^36 ns
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final long MAX_VALUE = (1L << 36) - 1;
+    public static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts; //number of latencies recorded in each bucket
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Finds the bucket of a latency.
+     *
+     * @param nanos the latency, at least 0 and at most MAX_VALUE
+     * @return the index of the bucket holding the latency
+     */
+    private static int index(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+        int sub = (int) (nanos >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Finds the largest latency a bucket holds.
+     *
+     * @param index the index of the bucket
+     * @return the upper bound of the bucket, in nanoseconds
+     */
+    private static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Records one latency. Negative latencies count as 0 and latencies over
+     * the largest bucket count in the largest bucket.
+     *
+     * @param nanos the latency, in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(index(Math.max(0, Math.min(nanos, MAX_VALUE))));
+    }
+
+    /**
+     * Adds the counts of this histogram to an array of counts, so histograms
+     * can be merged and read without stopping them.
+     *
+     * @param totals the counts to add to, with BUCKETS entries
+     */
+    public void addTo(long[] totals) {
+        for (int i = 0; i < BUCKETS; i++) {
+            totals[i] += counts.get(i);
+        }
+    }
+
+    /**
+     * Clears every bucket.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Finds the latency at a percentile of bucket counts.
+     *
+     * @param totals the counts of each bucket, as filled by addTo()
+     * @param percentile the percentile, from 0 to 100
+     * @return the upper bound of the bucket the percentile falls in, or 0 if
+     * there are no counts
+     */
+    public static long valueAt(long[] totals, double percentile) {
+        long count = 0;
+        for (long bucket : totals) {
+            count += bucket;
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100.0) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += totals[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public static void main(String[] args) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        long[] totals = new long[BUCKETS];
+        histogram.addTo(totals);
+        System.out.println(valueAt(totals, 50)); // 507903, within 6% of 500000
+        System.out.println(valueAt(totals, 99)); // 1015807, within 6% of 990000
+        System.out.println(valueAt(totals, 100)); // 1015807
+        System.out.println(upperBound(index(15)) + " " + upperBound(index(16)) + " " + upperBound(index(17))); // 15 16 17
+        System.out.println(upperBound(index(MAX_VALUE)) == MAX_VALUE); // true
+    }
+}
@@ -0,0 +1,179 @@
+package classes;
+
+/**
+ * This class implements a day-occupancy bitmap for a sliding window of days.
+ * Each bit of the ring of long words marks one day, keyed by its epoch day
+ * (see Date.toEpochDay()). The window covers 256 days, which is enough for
+ * the 3 month advance limit plus a week-long booking, and slides forward as
+ * later days are needed. Days that drop out of the window are forgotten.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class OccupancyCalendar {
+    private static final int WORDS = 4; //number of words in the ring
+    private static final int DAYS_PER_WORD = Long.SIZE;
+    private static final int WORD_SHIFT = 6; //log2 of DAYS_PER_WORD
+    private static final int SPAN = WORDS * DAYS_PER_WORD; //days covered by the window
+
+    private final long[] words;
+    private int start; //epoch day of the first day in the window
+    private boolean anchored; //false until the window has been placed
+
+    /**
+     * Default constructor to create an empty calendar with no window yet.
+     */
+    public OccupancyCalendar() {
+        this.words = new long[WORDS];
+        this.start = 0;
+        this.anchored = false;
+    }
+
+    /**
+     * Checks whether the window has been placed yet.
+     *
+     * @return true if the window has been placed, false otherwise
+     */
+    public boolean isAnchored() {
+        return this.anchored;
+    }
+
+    /**
+     * Places an empty window so that it starts one word before the given day,
+     * which leaves room for bookings made a little earlier than the first one.
+     *
+     * @param day epoch day the window should cover
+     */
+    public void anchor(int day) {
+        this.start = ((day >> WORD_SHIFT) - 1) << WORD_SHIFT;
+        this.anchored = true;
+        for (int i = 0; i < WORDS; i++) {
+            this.words[i] = 0;
+        }
+    }
+
+    /**
+     * Checks whether every day of a range falls inside the window.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     * @return true if the whole range is inside the window, false otherwise
+     */
+    public boolean covers(int from, int to) {
+        return this.anchored && from <= to && from >= this.start && to < this.start + SPAN;
+    }
+
+    /**
+     * Checks whether no day of a range is marked.
+     * The range must be covered by the window.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     * @return true if every day in the range is free, false otherwise
+     */
+    public boolean isFree(int from, int to) {
+        int day = from;
+        while (day <= to) {
+            int block = day >> WORD_SHIFT;
+            int last = Math.min(to, (block << WORD_SHIFT) + DAYS_PER_WORD - 1);
+            if ((this.words[slot(block)] & mask(day, last)) != 0) {
+                return false;
+            }
+            day = last + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Marks the days of a range that fall inside the window.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     */
+    public void set(int from, int to) {
+        int day = Math.max(from, this.start);
+        int end = Math.min(to, this.start + SPAN - 1);
+        while (day <= end) {
+            int block = day >> WORD_SHIFT;
+            int last = Math.min(end, (block << WORD_SHIFT) + DAYS_PER_WORD - 1);
+            this.words[slot(block)] |= mask(day, last);
+            day = last + 1;
+        }
+    }
+
+    /**
+     * Unmarks the days of a range that fall inside the window.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range
+     */
+    public void clear(int from, int to) {
+        int day = Math.max(from, this.start);
+        int end = Math.min(to, this.start + SPAN - 1);
+        while (day <= end) {
+            int block = day >> WORD_SHIFT;
+            int last = Math.min(end, (block << WORD_SHIFT) + DAYS_PER_WORD - 1);
+            this.words[slot(block)] &= ~mask(day, last);
+            day = last + 1;
+        }
+    }
+
+    /**
+     * Slides the window forward until it covers the given day.
+     * Words that come into the window are cleared, so the caller must mark
+     * the days of any booking reaching into them again.
+     *
+     * @param day epoch day the window should cover
+     * @return true if the window moved, false if it already covered the day
+     */
+    public boolean slideTo(int day) {
+        if (day < this.start + SPAN) {
+            return false;
+        }
+        int newStart = ((day >> WORD_SHIFT) - WORDS + 1) << WORD_SHIFT;
+        int firstNew = Math.max(this.start + SPAN, newStart) >> WORD_SHIFT;
+        int lastNew = (newStart + SPAN - 1) >> WORD_SHIFT;
+        for (int block = firstNew; block <= lastNew; block++) {
+            this.words[slot(block)] = 0;
+        }
+        this.start = newStart;
+        return true;
+    }
+
+    /**
+     * Finds the ring slot holding a block of days.
+     *
+     * @param block epoch day divided by the days per word
+     * @return index of the word in the ring
+     */
+    private static int slot(int block) {
+        return Math.floorMod(block, WORDS);
+    }
+
+    /**
+     * Builds the bit mask for a range of days within one word.
+     *
+     * @param from first epoch day of the range
+     * @param to last epoch day of the range, in the same word as from
+     * @return the mask with the bits of the range set
+     */
+    private static long mask(int from, int to) {
+        return (-1L << (from & (DAYS_PER_WORD - 1))) & (-1L >>> (DAYS_PER_WORD - 1 - (to & (DAYS_PER_WORD - 1))));
+    }
+
+    public static void main(String[] args) {
+        OccupancyCalendar calendar = new OccupancyCalendar();
+        int day = new Date(10, 1, 2025).toEpochDay();
+        calendar.anchor(day);
+        calendar.set(day, day + 2);
+
+        System.out.println(calendar.isFree(day + 3, day + 9)); // true
+        System.out.println(calendar.isFree(day + 2, day + 9)); // false
+
+        calendar.clear(day, day + 2);
+        System.out.println(calendar.isFree(day, day + 2)); // true
+
+        System.out.println(calendar.covers(day + 300, day + 301)); // false
+        calendar.slideTo(day + 301);
+        System.out.println(calendar.covers(day + 300, day + 301)); // true
+    }
+}
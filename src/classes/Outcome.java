@@ -0,0 +1,47 @@
+package classes;
+
+/**
+ * Enum for how a command ended: run successfully, or rejected for a reason.
+ * CommandMetrics counts and times commands by their outcome, so a rejected
+ * command is never mixed into the latencies of successful ones.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public enum Outcome {
+    /** The command was run. */
+    OK,
+    /** The command or its number of tokens was not recognized. */
+    INVALID_COMMAND,
+    /** A number, such as a year or an employee number, could not be parsed. */
+    INVALID_NUMBER,
+    /** The command line could not be read at all. */
+    INVALID_FORMAT,
+    /** A date is not a calendar date. */
+    INVALID_DATE,
+    /** A date is in the past, or too far in the future. */
+    DATE_NOT_ALLOWED,
+    /** An end date is before its begin date. */
+    END_BEFORE_BEGIN,
+    /** The make is not one the fleet carries. */
+    INVALID_MAKE,
+    /** The employee is not a known employee. */
+    INVALID_EMPLOYEE,
+    /** A mileage is not a valid mileage. */
+    INVALID_MILEAGE,
+    /** The vehicle is not in the fleet. */
+    NOT_IN_FLEET,
+    /** The vehicle cannot be removed while it has bookings. */
+    HAS_BOOKINGS,
+    /** The vehicle is already booked for some of the dates. */
+    NOT_AVAILABLE,
+    /** The employee already has a booking for some of the dates. */
+    EMPLOYEE_CONFLICT,
+    /** The booking begins too far in advance. */
+    TOO_FAR_IN_ADVANCE,
+    /** The booking is longer than allowed. */
+    TOO_LONG,
+    /** There is no booking to cancel or return. */
+    NO_BOOKING,
+    /** The command failed with an exception. */
+    ERROR
+}
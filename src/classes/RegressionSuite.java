@@ -0,0 +1,261 @@
+package classes;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the regression suite in the TestCases directory, with the clock
+ * installed in Date fixed to 10/1/2025 so the results never depend on the
+ * day the suite is run.
+ * Golden tests: every command script (*.txt) is run in batch mode through a
+ * new Frontend and its output must match the expected output next to it
+ * (*.expected) byte for byte, apart from the line separator.
+ * Throughput tiers: each line of throughput.tiers names a workload from
+ * WorkloadGenerator, the minimum commands per second it must reach, the most
+ * bytes it may allocate per command, and a hash of its output, so a change
+ * to Fleet, Reservation, or TripList has to keep the same behavior at scale
+ * and be at least as fast and lean as the budget says.
+ * With --update, the expected outputs and the tier hashes are written from
+ * the current code instead of checked; the budgets are left as they are.
+ * With --golden, only the golden tests are run.
+ * Usage: RegressionSuite [--update] [--golden] [directory]
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class RegressionSuite {
+    // Define constants for the day the suite runs on and the files it reads
+    private static final Date TODAY = new Date(10, 1, 2025);
+    private static final String SCRIPT = ".txt";
+    private static final String EXPECTED = ".expected";
+    private static final String TIERS = "throughput.tiers";
+    private static final int MAX_WARMUP = 50_000;
+
+    private final Path directory; //where the scripts, expected outputs, and tiers are
+    private final boolean isUpdate; //true to write the expected results instead of checking them
+    private int failures; //tests failed so far
+
+    /**
+     * Creates a suite over a directory of tests.
+     *
+     * @param directory where the scripts, expected outputs, and tiers are
+     * @param isUpdate true to write the expected results instead of checking them
+     */
+    private RegressionSuite(Path directory, boolean isUpdate) {
+        this.directory = directory;
+        this.isUpdate = isUpdate;
+        this.failures = 0;
+    }
+
+    /**
+     * Runs a command script through a new Frontend in batch mode.
+     *
+     * @param script the command script
+     * @return everything written, with line separators changed to \n
+     * @throws IOException if the script cannot be read
+     */
+    private static String runScript(Path script) throws IOException {
+        StringWriter writer = new StringWriter();
+        new Frontend().runBatch(script, writer);
+        return writer.toString().replace(System.lineSeparator(), "\n");
+    }
+
+    /**
+     * Runs every command script and checks, or writes, its expected output.
+     *
+     * @throws IOException if a script or expected output cannot be read or written
+     */
+    private void runGolden() throws IOException {
+        List<Path> scripts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*" + SCRIPT)) {
+            for (Path file : files) {
+                scripts.add(file);
+            }
+        }
+        scripts.sort(null);
+        for (Path script : scripts) {
+            String name = script.getFileName().toString();
+            Path expectedPath = script.resolveSibling(name.substring(0, name.length() - SCRIPT.length()) + EXPECTED);
+            String actual = runScript(script);
+            if (this.isUpdate) {
+                Files.writeString(expectedPath, actual, Charset.defaultCharset());
+                System.out.println("UPDATED " + name);
+                continue;
+            }
+            if (!Files.exists(expectedPath)) {
+                fail(name, "no expected output " + expectedPath.getFileName());
+                continue;
+            }
+            String expected = Files.readString(expectedPath, Charset.defaultCharset()).replace("\r\n", "\n");
+            if (expected.equals(actual)) {
+                System.out.println("PASS " + name);
+            }
+            else {
+                fail(name, firstDifference(expected, actual));
+            }
+        }
+    }
+
+    /**
+     * Describes the first line at which two outputs differ.
+     *
+     * @param expected the expected output
+     * @param actual the actual output
+     * @return the line number and both versions of the line
+     */
+    private static String firstDifference(String expected, String actual) {
+        String[] expectedLines = expected.split("\n", -1);
+        String[] actualLines = actual.split("\n", -1);
+        int line = 0;
+        while (line < expectedLines.length && line < actualLines.length
+                && expectedLines[line].equals(actualLines[line])) {
+            line++;
+        }
+        String want = line < expectedLines.length ? expectedLines[line] : "<end of output>";
+        String got = line < actualLines.length ? actualLines[line] : "<end of output>";
+        return "line " + (line + 1) + System.lineSeparator() + "  expected: " + want
+                + System.lineSeparator() + "  actual:   " + got;
+    }
+
+    /**
+     * Runs every throughput tier and checks, or writes, its output hash, and
+     * checks its throughput and allocation budgets.
+     * A tier line holds: name, commands, fleet size, employees, conflict
+     * rate, mix (A:D:B:C:R:F:P), seed, minimum commands per second, maximum
+     * bytes per command, and the output hash, or - if there is none yet.
+     *
+     * @throws IOException if the tiers cannot be read or written
+     */
+    private void runTiers() throws IOException {
+        Path tiersPath = this.directory.resolve(TIERS);
+        if (!Files.exists(tiersPath)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(tiersPath, Charset.defaultCharset());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length != 10) {
+                fail(TIERS, "line " + (i + 1) + " - needs 10 fields.");
+                continue;
+            }
+            String hash = runTier(fields);
+            if (this.isUpdate) {
+                fields[9] = hash;
+                lines.set(i, String.join(" ", fields));
+            }
+        }
+        if (this.isUpdate) {
+            Files.write(tiersPath, lines, Charset.defaultCharset());
+        }
+    }
+
+    /**
+     * Creates the generator of a tier's workload.
+     *
+     * @param fields the fields of the tier
+     * @param seed the seed of the random numbers
+     * @return the generator
+     */
+    private static WorkloadGenerator generator(String[] fields, long seed) {
+        WorkloadGenerator generator = new WorkloadGenerator(seed, TODAY);
+        generator.setFleetSize(Integer.parseInt(fields[2]));
+        generator.setEmployeeCount(Integer.parseInt(fields[3]));
+        generator.setConflictRate(Double.parseDouble(fields[4]));
+        String[] mix = fields[5].split(":");
+        int[] weights = new int[mix.length];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Integer.parseInt(mix[i]);
+        }
+        generator.setMix(weights[0], weights[1], weights[2], weights[3], weights[4], weights[5], weights[6]);
+        return generator;
+    }
+
+    /**
+     * Runs one throughput tier and reports whether it stayed in its budgets.
+     *
+     * @param fields the fields of the tier
+     * @return the hash of the tier's output
+     */
+    private String runTier(String[] fields) {
+        String name = "tier " + fields[0];
+        int count = Integer.parseInt(fields[1]);
+        long seed = Long.parseLong(fields[6]);
+        double minRate = Double.parseDouble(fields[7]);
+        double maxBytes = Double.parseDouble(fields[8]);
+
+        String[] commands = generator(fields, seed).generate(count);
+        ThroughputHarness.run(new Frontend(), generator(fields, seed + 1).generate(Math.min(count, MAX_WARMUP)), null);
+        long allocatedBefore = ThroughputHarness.allocatedBytes();
+        long start = System.nanoTime();
+        long hash = ThroughputHarness.run(new Frontend(), commands, null);
+        long elapsed = System.nanoTime() - start;
+        long allocatedAfter = ThroughputHarness.allocatedBytes();
+
+        double rate = count / (elapsed / 1e9);
+        double bytes = allocatedBefore < 0 ? 0 : (double) (allocatedAfter - allocatedBefore) / count;
+        String measured = String.format("%,.0f commands/s (min %,.0f), %,.0f bytes/command (max %,.0f)",
+                rate, minRate, bytes, maxBytes);
+        String hashText = Long.toHexString(hash);
+        if (this.isUpdate) {
+            System.out.println("UPDATED " + name + ": " + measured);
+        }
+        else if (!hashText.equals(fields[9])) {
+            fail(name, "output hash " + hashText + ", expected " + fields[9]);
+        }
+        else if (rate < minRate) {
+            fail(name, "too slow: " + measured);
+        }
+        else if (bytes > maxBytes) {
+            fail(name, "allocates too much: " + measured);
+        }
+        else {
+            System.out.println("PASS " + name + ": " + measured);
+        }
+        return hashText;
+    }
+
+    /**
+     * Reports a failed test.
+     *
+     * @param name the name of the test
+     * @param reason why it failed
+     */
+    private void fail(String name, String reason) {
+        this.failures++;
+        System.out.println("FAIL " + name + ": " + reason);
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean isUpdate = false;
+        boolean isGoldenOnly = false;
+        int first = 0;
+        while (first < args.length && args[first].startsWith("--")) {
+            switch (args[first]) {
+                case "--update" -> isUpdate = true;
+                case "--golden" -> isGoldenOnly = true;
+                default -> throw new IllegalArgumentException(args[first] + " - unknown option.");
+            }
+            first++;
+        }
+        Path directory = Path.of(args.length > first ? args[first] : "TestCases");
+
+        Date.setClock(DateClock.fixed(TODAY));
+        RegressionSuite suite = new RegressionSuite(directory, isUpdate);
+        suite.runGolden();
+        if (!isGoldenOnly) {
+            suite.runTiers();
+        }
+        System.out.println(suite.failures == 0 ? "All tests passed." : suite.failures + " test(s) failed.");
+        if (suite.failures > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -1,147 +1,570 @@
 package classes;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * This class implements the Reservation object
- * Includes an array of bookings and the number of bookings total.
+ * Includes a hash index of every booking and the number of bookings total.
+ * The bookings of each vehicle are also kept in a schedule keyed by plate,
+ * so availability checks only look at that vehicle's bookings, and in an
+ * interval tree per employee for the employee time conflict checks. One more
+ * interval tree over all bookings finds the vehicles booked in a date range.
+ * The print commands read from ordered views that are kept up to date as
+ * bookings are added and removed, so printing never sorts. An array of the
+ * bookings is only built when asked for, and kept until the next change.
+ * A Reservation is safe to use from many threads. Each vehicle's schedule is
+ * guarded by one of a set of striped locks chosen by plate, and each
+ * employee's schedule and booking order by a lock of its own. Locks are
+ * always taken in that order (plate, then employee), so tryBook() can check
+ * and book atomically without deadlock. The index and the views shared by
+ * every booking are concurrent collections, so bookings of different
+ * vehicles by different employees only wait for each other while the
+ * interval tree of all bookings changes, which takes O(log n) under the
+ * write side of the tree's own read/write lock; date range queries share
+ * its read side. Changes hold the read side of another read/write lock,
+ * which any number of them can share; the prints and the array take the
+ * write side, so they see every change either whole or not at all.
+ * A Reservation made with lock-free booking also keeps the near-term days of
+ * each vehicle and each employee in an AtomicOccupancy. tryBook() then
+ * claims the days of the vehicle and of the employee with compare-and-set,
+ * releasing the vehicle's days again if the employee's are taken, so a
+ * booking turned away for a hot vehicle never waits for a lock. Only a
+ * booking that wins its days takes the locks, to record it. Ranges the
+ * occupancy words cannot answer for fall back to the locking checks.
  *
  * @author Jai Patel
  */
 public class Reservation {
-    private Booking[] bookings;
-    private int size;
+    private Booking[] bookings; //every booking, built by getBookings() when null
+    private ConcurrentHashMap<String, VehicleSchedule> plateSchedules; //plate -> that vehicle's bookings
+    private EnumMap<Employee, IntervalTree> employeeSchedules; //employee -> that employee's bookings, every employee
+    private ConcurrentHashMap<Booking, Booking> bookingIndex; //booking -> the booking as stored
+    private IntervalTree allBookings; //every booking, for date range queries across vehicles
+    private ConcurrentSkipListSet<Booking> byVehicle; //view ordered by plate, then beginning date
+    private EnumMap<Employee, LinkedHashSet<Booking>> byEmployee; //view of each employee's bookings, in booking order
+    private final ReentrantLock[] plateLocks; //striped by plate, guard the vehicle schedules
+    private final ReentrantLock[] employeeLocks; //one per employee, guard the employee schedules and views
+    private final ReentrantReadWriteLock viewLock; //shared by changes, held alone by the prints and the array
+    private final ReentrantReadWriteLock treeLock; //guards allBookings, held alone while it changes
+    private final boolean lockFree; //true if tryBook claims days in the occupancy words first
+    private final ConcurrentHashMap<String, AtomicOccupancy> vehicleOccupancy; //plate -> near-term days, if lock-free
+    private final AtomicOccupancy[] employeeOccupancy; //by employee ordinal, near-term days, if lock-free
+
+    // Define the number of striped plate locks, a power of two
+    private static final int PLATE_STRIPES = 64;
+
+    // Define the order of employees in the department view: by department, then by name
+    private static final Employee[] DEPT_ORDER = sortByDept(Employee.values());
 
     /**
      * Default constructor to create an empty Reservation object.
      */
     public Reservation(){
-        this.bookings = new Booking[4];
-        this.size = 0;
+        this(false);
     }
 
     /**
-     * Getter for the array of bookings.
+     * Constructor to create an empty Reservation object, choosing how
+     * tryBook() decides between clients booking the same days.
+     *
+     * @param lockFree true to claim days in occupancy words with
+     *                 compare-and-set, false to check under the locks
+     */
+    public Reservation(boolean lockFree){
+        this.bookings = null;
+        this.plateSchedules = new ConcurrentHashMap<>();
+        this.employeeSchedules = new EnumMap<>(Employee.class);
+        this.bookingIndex = new ConcurrentHashMap<>();
+        this.allBookings = new IntervalTree();
+        this.byVehicle = new ConcurrentSkipListSet<>(Reservation::compareByVehicle);
+        this.byEmployee = new EnumMap<>(Employee.class);
+        this.plateLocks = new ReentrantLock[PLATE_STRIPES];
+        for (int i = 0; i < PLATE_STRIPES; i++) {
+            this.plateLocks[i] = new ReentrantLock();
+        }
+        this.employeeLocks = new ReentrantLock[Employee.values().length];
+        // every employee gets a schedule up front, so the maps never change shape under concurrent use
+        for (Employee employee : Employee.values()) {
+            this.employeeSchedules.put(employee, new IntervalTree());
+            this.byEmployee.put(employee, new LinkedHashSet<>());
+            this.employeeLocks[employee.ordinal()] = new ReentrantLock();
+        }
+        this.viewLock = new ReentrantReadWriteLock();
+        this.treeLock = new ReentrantReadWriteLock();
+        this.lockFree = lockFree;
+        this.vehicleOccupancy = new ConcurrentHashMap<>();
+        this.employeeOccupancy = new AtomicOccupancy[Employee.values().length];
+        for (int i = 0; i < this.employeeOccupancy.length; i++) {
+            this.employeeOccupancy[i] = new AtomicOccupancy();
+        }
+    }
+
+    /**
+     * Finds the occupancy words of a vehicle, making them on first use.
+     * They are kept after the vehicle's last booking is removed, so a
+     * thread claiming days never holds words that have been dropped.
+     *
+     * @param plate the plate of the vehicle
+     * @return the vehicle's occupancy words
+     */
+    private AtomicOccupancy occupancy(String plate){
+        AtomicOccupancy occupancy = this.vehicleOccupancy.get(plate);
+        if(occupancy == null){
+            occupancy = this.vehicleOccupancy.computeIfAbsent(plate, key -> new AtomicOccupancy());
+        }
+        return occupancy;
+    }
+
+    /**
+     * Finds the striped lock guarding a vehicle's schedule.
+     *
+     * @param plate the plate of the vehicle
+     * @return the lock of the vehicle's stripe
+     */
+    private ReentrantLock plateLock(String plate){
+        int hash = plate.hashCode();
+        return this.plateLocks[(hash ^ (hash >>> 16)) & (PLATE_STRIPES - 1)];
+    }
+
+    /**
+     * Takes the locks a change to a booking needs: its vehicle's stripe,
+     * then its employee's lock if it has an employee.
+     *
+     * @param booking the booking about to be changed
+     */
+    private void lock(Booking booking){
+        plateLock(booking.getVehicle().getPlate()).lock();
+        if(booking.getEmployee() != null){
+            this.employeeLocks[booking.getEmployee().ordinal()].lock();
+        }
+    }
+
+    /**
+     * Releases the locks taken by lock(), in the reverse order.
+     *
+     * @param booking the booking that was changed
+     */
+    private void unlock(Booking booking){
+        if(booking.getEmployee() != null){
+            this.employeeLocks[booking.getEmployee().ordinal()].unlock();
+        }
+        plateLock(booking.getVehicle().getPlate()).unlock();
+    }
+
+    /**
+     * Orders two bookings by the plates of the vehicles, then by beginning
+     * date, then by ending date.
+     *
+     * @param a the first booking
+     * @param b the second booking
+     * @return negative if a comes first, positive if b comes first, 0 if equal
+     */
+    private static int compareByVehicle(Booking a, Booking b){
+        int comparePlate = a.getVehicle().getPlate().compareTo(b.getVehicle().getPlate());
+        if(comparePlate != 0){
+            return comparePlate;
+        }
+        int compareBegin = Integer.compare(a.getBegin().toPackedInt(), b.getBegin().toPackedInt());
+        if(compareBegin != 0){
+            return compareBegin;
+        }
+        return Integer.compare(a.getEnd().toPackedInt(), b.getEnd().toPackedInt());
+    }
+
+    /**
+     * Sorts employees by department, then by name using Insertion Sort.
+     *
+     * @param employees employee array to be sorted in place
+     * @return the sorted array
+     */
+    private static Employee[] sortByDept(Employee[] employees){
+        for (int i = 1; i < employees.length; i++) {
+            Employee key = employees[i];
+            int j = i - 1;
+
+            while (j >= 0 && (key.getDepartment().compareTo(employees[j].getDepartment()) < 0 ||
+                    (key.getDepartment() == employees[j].getDepartment() &&
+                            key.name().compareTo(employees[j].name()) < 0))) {
+                employees[j + 1] = employees[j];
+                j--;
+            }
+
+            employees[j + 1] = key;
+        }
+        return employees;
+    }
+
+    /**
+     * Getter for the array of bookings, in the order of toArray(). The array
+     * is built on the first call after a change and shared until the next
+     * one, so it must not be changed.
      *
      * @return array of bookings
      */
     public Booking[] getBookings(){
-        return this.bookings;
+        this.viewLock.writeLock().lock();
+        try {
+            if(this.bookings == null){
+                this.bookings = copyBookings();
+            }
+            return this.bookings;
+        } finally {
+            this.viewLock.writeLock().unlock();
+        }
     }
 
     /**
-     * Getter for the size of the bookings array.
+     * Copies the bookings into an array in which each employee's bookings
+     * are in the order they were made, so adding the array to an empty
+     * Reservation gives the same order when printing by department.
      *
-     * @return the size of the bookings array
+     * @return array of every booking
      */
-    public int getSize(){
-        return this.size;
+    public Booking[] toArray(){
+        this.viewLock.writeLock().lock();
+        try {
+            return copyBookings();
+        } finally {
+            this.viewLock.writeLock().unlock();
+        }
     }
 
-    // Define the constant for not found
-    private static final int NOT_FOUND = -1;
+    /**
+     * Copies the bookings for toArray(): each employee's in booking order,
+     * then any without an employee in the order of printByVehicle().
+     * The caller holds the write side of the view lock.
+     *
+     * @return array of every booking
+     */
+    private Booking[] copyBookings(){
+        Booking[] copy = new Booking[this.bookingIndex.size()];
+        int count = 0;
+        for (LinkedHashSet<Booking> employeeBookings : this.byEmployee.values()) {
+            for (Booking booking : employeeBookings) {
+                copy[count++] = booking;
+            }
+        }
+        if (count < copy.length) {
+            for (Booking booking : this.byVehicle) {
+                if (booking.getEmployee() == null) {
+                    copy[count++] = booking;
+                }
+            }
+        }
+        return copy;
+    }
 
     /**
-     * Searches through bookings array to check if passed through booking
-     * is present in the array.
+     * Getter for the number of bookings.
      *
-     * @param book booking to be searched for
-     * @return index where booking is located, otherwise NOT_FOUND is returned
+     * @return the number of bookings
      */
-    private int find(Booking book){
-        Booking[] bookings = this.bookings;
+    public int getSize(){
+        return this.bookingIndex.size();
+    }
+
+    // Define the line separator that ends each printed line, as println() does
+    private static final String NEWLINE = System.lineSeparator();
 
-        for(int i = 0; i < bookings.length; i++){
-            if(book.equals(bookings[i])){
-                return i;
+    /**
+     * This method will add a new booking to the list of bookings.
+     * A booking equal to one already in the list is not added again.
+     * The booking is not checked against the others; use tryBook() for that.
+     */
+    public void add(Booking booking){
+        lock(booking);
+        try {
+            if(insert(booking) && this.lockFree){
+                record(booking, false);
             }
+        } finally {
+            unlock(booking);
         }
+    }
 
-        return NOT_FOUND;
+    /**
+     * Records a booking in the occupancy words of its vehicle and employee.
+     * The caller holds the locks taken by lock().
+     *
+     * @param booking the booking that was added
+     * @param claimed true if its days were already claimed
+     */
+    private void record(Booking booking, boolean claimed){
+        occupancy(booking.getVehicle().getPlate()).add(booking, claimed);
+        if(booking.getEmployee() != null){
+            this.employeeOccupancy[booking.getEmployee().ordinal()].add(booking, claimed);
+        }
     }
 
     /**
-     * Resizes the amount of bookings the array can handle. The new resized array
-     * will have a length of the previous array plus 4.
+     * Checks a booking and adds it in one atomic step: the vehicle must be
+     * available, the employee must have no overlapping booking, and the
+     * booking must be neither too far in advance nor too long. No other
+     * thread can book the vehicle or the employee between the checks and
+     * the insert, so two clients can never both get the same days.
+     *
+     * @param booking the booking to make, with an employee
+     * @return OK if the booking was added, otherwise the first check it
+     *         failed: NOT_AVAILABLE, EMPLOYEE_CONFLICT, TOO_FAR_IN_ADVANCE,
+     *         or TOO_LONG
      */
-    private void grow(){
-        int capacity = this.bookings.length +4;
+    public Outcome tryBook(Booking booking){
+        if(this.lockFree){
+            Outcome outcome = tryClaim(booking);
+            if(outcome != null){
+                return outcome;
+            }
+        }
+        lock(booking);
+        try {
+            VehicleSchedule schedule = this.plateSchedules.get(booking.getVehicle().getPlate());
+            if(schedule != null && !schedule.isAvailable(booking.getBegin(), booking.getEnd())){
+                return Outcome.NOT_AVAILABLE;
+            }
+            if(this.employeeSchedules.get(booking.getEmployee()).overlaps(booking.getBegin(), booking.getEnd())){
+                return Outcome.EMPLOYEE_CONFLICT;
+            }
+            if(booking.isTooFarInAdvance()){
+                return Outcome.TOO_FAR_IN_ADVANCE;
+            }
+            if(booking.isTooLong()){
+                return Outcome.TOO_LONG;
+            }
+            if(this.lockFree){
+                // a lock-free booking may hold days it has not recorded yet, so claim them too
+                int from = booking.getBegin().toEpochDay();
+                int to = booking.getEnd().toEpochDay();
+                AtomicOccupancy vehicle = occupancy(booking.getVehicle().getPlate());
+                if(!vehicle.claimInWindow(from, to)){
+                    return Outcome.NOT_AVAILABLE;
+                }
+                if(!this.employeeOccupancy[booking.getEmployee().ordinal()].claimInWindow(from, to)){
+                    vehicle.release(from, to);
+                    return Outcome.EMPLOYEE_CONFLICT;
+                }
+                insert(booking);
+                record(booking, true);
+                return Outcome.OK;
+            }
+            insert(booking);
+            return Outcome.OK;
+        } finally {
+            unlock(booking);
+        }
+    }
 
-        Booking[] resizedList = new Booking[capacity];
+    /**
+     * The lock-free part of tryBook(): claims the booking's days for the
+     * vehicle and then for the employee, releasing the vehicle's days if the
+     * employee's are taken. The checks come in the same order as under the
+     * locks, and a booking that is too far in advance or too long only
+     * reads the words, so the outcome is the one the locks would give.
+     * Another client can be turned away by days claimed here that are then
+     * released, just as if this booking had been made and cancelled.
+     *
+     * @param booking the booking to make, with an employee
+     * @return the outcome, or null if the occupancy words cannot answer for
+     *         the booking's days and the locks must be used
+     */
+    private Outcome tryClaim(Booking booking){
+        int from = booking.getBegin().toEpochDay();
+        int to = booking.getEnd().toEpochDay();
+        AtomicOccupancy vehicle = occupancy(booking.getVehicle().getPlate());
+        AtomicOccupancy employee = this.employeeOccupancy[booking.getEmployee().ordinal()];
+        if(booking.isTooFarInAdvance() || booking.isTooLong()){
+            int vehicleDays = vehicle.test(from, to);
+            if(vehicleDays != AtomicOccupancy.CLAIMED){
+                return vehicleDays == AtomicOccupancy.TAKEN ? Outcome.NOT_AVAILABLE : null;
+            }
+            int employeeDays = employee.test(from, to);
+            if(employeeDays != AtomicOccupancy.CLAIMED){
+                return employeeDays == AtomicOccupancy.TAKEN ? Outcome.EMPLOYEE_CONFLICT : null;
+            }
+            return booking.isTooFarInAdvance() ? Outcome.TOO_FAR_IN_ADVANCE : Outcome.TOO_LONG;
+        }
 
-        for(int i = 0; i < this.size; i++){
-            resizedList[i] = this.bookings[i];
+        int vehicleDays = vehicle.claim(from, to);
+        if(vehicleDays != AtomicOccupancy.CLAIMED){
+            return vehicleDays == AtomicOccupancy.TAKEN ? Outcome.NOT_AVAILABLE : null;
+        }
+        int employeeDays = employee.claim(from, to);
+        if(employeeDays != AtomicOccupancy.CLAIMED){
+            vehicle.release(from, to);
+            return employeeDays == AtomicOccupancy.TAKEN ? Outcome.EMPLOYEE_CONFLICT : null;
         }
 
-        this.bookings = resizedList;
+        // the days are ours, so recording the booking cannot fail
+        lock(booking);
+        try {
+            insert(booking);
+            record(booking, true);
+        } finally {
+            unlock(booking);
+        }
+        return Outcome.OK;
     }
 
     /**
-     * This method will append a new booking to the of the list of bookings.
-     * It will first check if the list is full, if so the array will grow, if not
-     * the new booking will be added at the end of the list.
+     * Adds a booking to every structure, unless an equal booking is already
+     * in the list. The caller holds the locks taken by lock().
+     *
+     * @param booking the booking to add
+     * @return true if the booking was added, false if it was already there
      */
-    public void add(Booking booking){
-        if(size == this.bookings.length){
-            this.grow();
+    private boolean insert(Booking booking){
+        this.viewLock.readLock().lock();
+        try {
+            // the plate lock is held, so no other thread adds an equal booking meanwhile
+            if(this.bookingIndex.putIfAbsent(booking, booking) != null){
+                return false;
+            }
+            this.treeLock.writeLock().lock();
+            try {
+                this.allBookings.insert(booking);
+            } finally {
+                this.treeLock.writeLock().unlock();
+            }
+            this.byVehicle.add(booking);
+            if(booking.getEmployee() != null){
+                this.byEmployee.get(booking.getEmployee()).add(booking);
+            }
+            this.bookings = null;
+        } finally {
+            this.viewLock.readLock().unlock();
+        }
+
+        String plate = booking.getVehicle().getPlate();
+        VehicleSchedule schedule = this.plateSchedules.get(plate);
+        if(schedule == null){
+            schedule = new VehicleSchedule();
+            this.plateSchedules.put(plate, schedule);
         }
+        schedule.add(booking);
 
-        bookings[size] = booking;
-        size++;
+        Employee employee = booking.getEmployee();
+        if(employee != null){
+            this.employeeSchedules.get(employee).insert(booking);
+        }
+        return true;
+    }
+
+    /**
+     * This method will add many bookings at once. Each booking is checked
+     * against the hash index, so duplicates (in the list or earlier in the
+     * array) are skipped in a single pass.
+     *
+     * @param bookings the bookings to be added
+     */
+    public void addAll(Booking[] bookings){
+        for(Booking booking : bookings){
+            this.add(booking);
+        }
     }
 
     /**
      * This method will delete a booking, and accept a Booking object as a
      * parameter.
-     * If Booking object is found in the list, it will be removed and all
-     * subsequent elements will be shifted over.
+     * If Booking object is found in the list, it will be overwritten by the
+     * last element of the list.
      *
      * @param booking specific Booking to be removed from the list
      */
     public void remove(Booking booking){
-        int index = this.find(booking);
+        ReentrantLock plateLock = plateLock(booking.getVehicle().getPlate());
+        plateLock.lock();
+        try {
+            // the passed booking may be a lookup key without an employee, so use the stored one
+            Booking existing = this.bookingIndex.get(booking);
+            if (existing == null){
+                return;
+            }
 
-        if (index == NOT_FOUND){
-            return;
+            // holding the plate lock, no other thread can remove the booking meanwhile
+            lock(existing);
+            try {
+                String plate = existing.getVehicle().getPlate();
+                VehicleSchedule schedule = this.plateSchedules.get(plate);
+                schedule.remove(existing);
+                if(schedule.isEmpty()){
+                    this.plateSchedules.remove(plate);
+                }
+                Employee employee = existing.getEmployee();
+                if(employee != null){
+                    this.employeeSchedules.get(employee).remove(existing);
+                }
+                if(this.lockFree){
+                    occupancy(plate).remove(existing, schedule.getBookings());
+                    if(employee != null){
+                        this.employeeOccupancy[employee.ordinal()].remove(existing, this.employeeSchedules.get(employee));
+                    }
+                }
+                removeShared(existing);
+            } finally {
+                unlock(existing);
+            }
+        } finally {
+            plateLock.unlock();
         }
+    }
 
-        for(int i = index; i < this.size - 1; i++){
-            this.bookings[i] = this.bookings[i + 1];
+    /**
+     * Removes a booking from the index and the views shared by every booking.
+     * The caller holds the locks taken by lock().
+     *
+     * @param existing the booking, as stored in the index
+     */
+    private void removeShared(Booking existing){
+        this.viewLock.readLock().lock();
+        try {
+            this.treeLock.writeLock().lock();
+            try {
+                this.allBookings.remove(existing);
+            } finally {
+                this.treeLock.writeLock().unlock();
+            }
+            this.byVehicle.remove(existing);
+            if(existing.getEmployee() != null){
+                this.byEmployee.get(existing.getEmployee()).remove(existing);
+            }
+            this.bookingIndex.remove(existing);
+            this.bookings = null;
+        } finally {
+            this.viewLock.readLock().unlock();
         }
-
-        this.size--;
-
-        this.bookings[this.size] = null;
     }
 
     /**
-     * Searches through bookings array to check if passed through booking
-     * is present in the array.
+     * Checks the hash index to see if passed through booking is present in
+     * the array.
      *
      * @param booking booking to be searched for
-     * @return true if not, false if not found
+     * @return true if found, false if not found
      */
     public boolean contains(Booking booking) {
-        return this.find(booking) != NOT_FOUND;
+        return this.bookingIndex.containsKey(booking);
     }
 
     /**
-     * Searches through bookings array to check a vehicle has been booked
+     * Checks whether a vehicle has any booking on record
      *
      * @param plate booking to be searched for by plate
      * @return true if booked, false if not booked
      */
     public boolean isBooked(String plate){
-        for (int i = 0; i < size; i++) {
-            if (bookings[i].getVehicle().getPlate().equals(plate)) {
-                return true;
-            }
-        }
-        return false;
+        return this.plateSchedules.containsKey(plate);
     }
 
     /**
      * Searches through bookings array to check if a vehicle with a given license
      * plate has a booking conflict. A vehicle is determined to be unavailable if
      * there is any overlap with an existing booking date.
+     * Only the schedule of that vehicle's bookings is searched, which answers
+     * from its day-occupancy calendar when the range is in the near future.
      *
      * @param plate plate of vehicle whose availability is being checked
      * @param begin proposed date for start of booking
@@ -149,25 +572,41 @@ public class Reservation {
      * @return true if available, false if unavailable
      */
     public boolean isAvailable(String plate, Date begin, Date end){
-        for(int i = 0; i < this.size; i++){
-            Booking existingBooking = this.bookings[i];
-
-            if(existingBooking.getVehicle().getPlate().equals(plate)){
-                Date existingBegin = existingBooking.getBegin();
-                Date existingEnd = existingBooking.getEnd();
+        ReentrantLock plateLock = plateLock(plate);
+        plateLock.lock();
+        try {
+            VehicleSchedule schedule = this.plateSchedules.get(plate);
+            return schedule == null || schedule.isAvailable(begin, end);
+        } finally {
+            plateLock.unlock();
+        }
+    }
 
-                if (begin.compareTo(existingEnd) <= 0 && end.compareTo(existingBegin) >= 0) {
-                    return false;
-                }
-            }
+    /**
+     * Finds the plates of all vehicles with a booking that overlaps a date
+     * range. Any vehicle whose plate is not in the result is available for
+     * the whole range.
+     *
+     * @param begin beginning date of the range
+     * @param end ending date of the range
+     * @return the set of plates booked during the range
+     */
+    public HashSet<String> getBookedPlates(Date begin, Date end){
+        HashSet<String> plates = new HashSet<>();
+        this.treeLock.readLock().lock();
+        try {
+            this.allBookings.forEachOverlap(begin, end, booking -> plates.add(booking.getVehicle().getPlate()));
+        } finally {
+            this.treeLock.readLock().unlock();
         }
-        return true;
+        return plates;
     }
 
     /**
      * Searches through bookings array to check if a employee has a booking
      * conflict. A vehicle is determined to be unavailable if there is any
      * overlap with an existing booking date.
+     * Only the interval tree of that employee's bookings is searched.
      *
      * @param employee employee to check for time conflicts
      * @param begin proposed date for start of booking
@@ -175,153 +614,135 @@ public class Reservation {
      * @return true if a conflicting booking is found, false if otherwise
      */
     public boolean hasTimeConflict(Employee employee, Date begin, Date end){
-        for(int i = 0; i < this.size; i++) {
-            Booking existingBooking = this.bookings[i];
-
-            if (existingBooking.getEmployee().equals(employee)) {
-                Date existingBegin = existingBooking.getBegin();
-                Date existingEnd = existingBooking.getEnd();
-
-                if (begin.compareTo(existingEnd) <= 0 && end.compareTo(existingBegin) >= 0) {
-                    return true;
-                }
-            }
+        ReentrantLock employeeLock = this.employeeLocks[employee.ordinal()];
+        employeeLock.lock();
+        try {
+            return this.employeeSchedules.get(employee).overlaps(begin, end);
+        } finally {
+            employeeLock.unlock();
         }
-
-        return false;
     }
 
     /**
      * Prints out bookings, order based upon the plates of the vehicles,
-     * then the date obtained
+     * then the beginning date
      *
      */
     public void printByVehicle(){
-        if (this.size == 0) {
-            System.out.println("There is no booking record.");
-            return;
-        }
-
-        insertionSortByPlate(this.bookings);
+        StringBuilder out = new StringBuilder();
+        printByVehicle(out);
+        System.out.print(out);
+    }
 
-        System.out.println("*List of reservations ordered by license plate number and beginning date.");
-        for (int i = 0; i < size; i++) {
-            System.out.println(bookings[i]);
+    /**
+     * Appends the lines of printByVehicle() to an output buffer instead of
+     * printing them, so a whole report can be written out at once.
+     *
+     * @param out the buffer the report is appended to
+     */
+    public void printByVehicle(StringBuilder out){
+        this.viewLock.writeLock().lock();
+        try {
+            appendByVehicle(out);
+        } finally {
+            this.viewLock.writeLock().unlock();
         }
-        System.out.println("*end of list.");
     }
 
     /**
-     * Helper method to printByVehicle(), which sorts the booking array
-     * based upon plates then the date obtained using Insertion Sort.
+     * Appends the lines of printByVehicle() while holding the write side of
+     * the view lock.
      *
-     * @param array booking array to be sorted in place by plate
+     * @param out the buffer the report is appended to
      */
-    private void insertionSortByPlate(Booking[] array) {
-        int n = this.size;
-
-        for (int i = 1; i < n; i++) {
-            Booking keyBooking = array[i];
-            String keyPlate = keyBooking.getVehicle().getPlate();
-            Date keyBegin = keyBooking.getBegin();
-
-            int j = i - 1;
-
-            while (j >= 0) {
-                String comparePlate = array[j].getVehicle().getPlate();
-                Date compareBegin = array[j].getBegin();
-
-                // Sort by plate first, then by begin date if plates are equal
-                if (keyPlate.compareTo(comparePlate) < 0 ||
-                        (keyPlate.equals(comparePlate) && keyBegin.compareTo(compareBegin) < 0)) {
-                    array[j + 1] = array[j];
-                    j--;
-                } else {
-                    break;
-                }
-            }
+    private void appendByVehicle(StringBuilder out){
+        if (this.bookingIndex.isEmpty()) {
+            out.append("There is no booking record.").append(NEWLINE);
+            return;
+        }
 
-            array[j + 1] = keyBooking;
+        out.append("*List of reservations ordered by license plate number and beginning date.").append(NEWLINE);
+        for (Booking booking : this.byVehicle) {
+            booking.appendTo(out).append(NEWLINE);
         }
+        out.append("*end of list.").append(NEWLINE);
     }
 
     /**
      * Prints out bookings, order based upon the departments of the
      * employees who booked the trips, then by order by employee
+     * Bookings of the same employee are printed in the order they were made.
      *
      */
     public void printByDept(){
-        if(this.size == 0){
-            System.out.println("There is no booking record.");
+        StringBuilder out = new StringBuilder();
+        printByDept(out);
+        System.out.print(out);
+    }
+
+    /**
+     * Appends the lines of printByDept() to an output buffer instead of
+     * printing them.
+     *
+     * @param out the buffer the report is appended to
+     */
+    public void printByDept(StringBuilder out){
+        this.viewLock.writeLock().lock();
+        try {
+            appendByDept(out);
+        } finally {
+            this.viewLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the lines of printByDept() while holding the write side of
+     * the view lock.
+     *
+     * @param out the buffer the report is appended to
+     */
+    private void appendByDept(StringBuilder out){
+        if(this.bookingIndex.isEmpty()){
+            out.append("There is no booking record.").append(NEWLINE);
             return;
         }
 
-        insertionSortByDept(bookings);
-        String dept = "";
+        Department dept = null;
 
-        System.out.println("*List of reservations ordered by department and employee.");
-        for (int i = 0; i < size; i++) {
+        out.append("*List of reservations ordered by department and employee.").append(NEWLINE);
+        for (Employee employee : DEPT_ORDER) {
+            LinkedHashSet<Booking> employeeBookings = this.byEmployee.get(employee);
+            if (employeeBookings == null || employeeBookings.isEmpty()) {
+                continue;
+            }
 
-            if (!dept.equals(bookings[i].getEmployee().getDepartment().toString())) {
-                dept = bookings[i].getEmployee().getDepartment().toString();
-                System.out.println("--" + dept + "--");
+            if (dept != employee.getDepartment()) {
+                dept = employee.getDepartment();
+                out.append("--").append(dept).append("--").append(NEWLINE);
+            }
+            for (Booking booking : employeeBookings) {
+                booking.appendTo(out).append(NEWLINE);
             }
-            System.out.println(bookings[i]);
         }
-        System.out.println("end of list.");
+        out.append("end of list.").append(NEWLINE);
     }
 
     /**
      * Finds the earliest booking for a specific vehicle in the reservations list.
      * A booking is considered earliest if its ending date is the smallest
-     * compared to other bookings of the same vehicle.
+     * compared to other bookings of the same vehicle. The vehicle's schedule
+     * keeps its bookings ordered by ending date, so this takes O(log k).
      * @param plate the license plate of the vehicle whose earliest booking is being searched
      * @return the earliest Booking object for the vehicle, or null if no bookings are found
      */
     public Booking getEarliestBooking(String plate) {
-        Booking earliest = null;
-        for (int i = 0; i < size; i++) {
-            Booking b = bookings[i];
-            if (b.getVehicle().getPlate().equals(plate)) {
-                if (earliest == null || b.getEnd().compareTo(earliest.getEnd()) < 0) {
-                    earliest = b;
-                }
-            }
-        }
-        return earliest;
-    }
-
-    /**
-     * Helper method to printByDept(), which sorts the booking array
-     * based upon departments then the employees using Insertion Sort.
-     *
-     * @param array booking array to be sorted in place by department
-     */
-    private void insertionSortByDept(Booking[] array){
-        int n = this.size;
-
-        for (int i = 1; i < n; i++) {
-            Booking keyBooking = array[i];
-            Department keyDept = keyBooking.getEmployee().getDepartment();
-            String keyEmployee = keyBooking.getEmployee().name();
-
-            int j = i - 1;
-
-            while (j >= 0) {
-                Department compareDept = array[j].getEmployee().getDepartment();
-                String compareEmployee = array[j].getEmployee().name();
-
-                // Sort by department first, then by employee if departments are equal
-                if (keyDept.compareTo(compareDept) < 0 ||
-                        (keyDept == compareDept && keyEmployee.compareTo(compareEmployee) < 0)) {
-                    array[j + 1] = array[j];
-                    j--;
-                } else {
-                    break;
-                }
-            }
-
-            array[j + 1] = keyBooking;
+        ReentrantLock plateLock = plateLock(plate);
+        plateLock.lock();
+        try {
+            VehicleSchedule schedule = this.plateSchedules.get(plate);
+            return schedule == null ? null : schedule.getEarliestBooking();
+        } finally {
+            plateLock.unlock();
         }
     }
 
@@ -352,11 +773,48 @@ public class Reservation {
         reservation.add(b3);
         reservation.add(b4);
         reservation.add(b5);
-        System.out.println("Reservation size:" + reservation.size);
+        System.out.println("Reservation size:" + reservation.getSize());
         System.out.println();
         System.out.println("Printing by Dept");
         reservation.printByDept();
         System.out.println("Printing by Plate");
         reservation.printByVehicle();
+
+        // tryBook tests: many threads race for the same days, only one gets them, with locks or without
+        Date.setClock(DateClock.fixed(new Date(3, 1, 2025)));
+        for (boolean lockFree : new boolean[] {false, true}) {
+            Reservation shared = new Reservation(lockFree);
+            Employee[] employees = Employee.values();
+            java.util.concurrent.atomic.AtomicInteger booked = new java.util.concurrent.atomic.AtomicInteger();
+            Thread[] clients = new Thread[employees.length];
+            for (int i = 0; i < clients.length; i++) {
+                Booking attempt = new Booking(d5, new Date(3, 18, 2025), employees[i], v2);
+                clients[i] = new Thread(() -> {
+                    if (shared.tryBook(attempt) == Outcome.OK) {
+                        booked.incrementAndGet();
+                    }
+                });
+                clients[i].start();
+            }
+            for (Thread client : clients) {
+                try {
+                    client.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            System.out.println(booked.get() + " " + shared.getSize()); // 1 1
+        }
+
+        // lock-free tests: cancelled days can be booked again, and an employee cannot be in two places
+        Reservation lockFree = new Reservation(true);
+        Booking first = new Booking(d5, new Date(3, 17, 2025), Employee.KAUR, v2);
+        System.out.println(lockFree.tryBook(first)); // OK
+        System.out.println(lockFree.tryBook(new Booking(new Date(3, 17, 2025), new Date(3, 19, 2025), Employee.PATEL, v2))); // NOT_AVAILABLE
+        System.out.println(lockFree.tryBook(new Booking(d5, d5, Employee.KAUR, v4))); // EMPLOYEE_CONFLICT
+        lockFree.remove(first);
+        System.out.println(lockFree.tryBook(new Booking(new Date(3, 17, 2025), new Date(3, 19, 2025), Employee.PATEL, v2))); // OK
+        System.out.println(lockFree.tryBook(new Booking(d5, d5, Employee.KAUR, v4))); // OK
+        Date.setClock(DateClock.SYSTEM);
     }
 }
@@ -1,7 +1,131 @@
 package classes;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.management.JMException;
 
+/**
+ * Starts the Vehicle Management System.
+ * With no arguments, commands are read from the console.
+ * With a command file, the file is run in batch mode and the responses are
+ * written to standard output, or to the output file if one is given.
+ * With --pipelined, the file is read, run, and written on separate threads.
+ * With --journal, changes are recorded in (and first replayed from) a
+ * journal file, forced to disk as --fsync says: always, group, or never.
+ * The journal is snapshotted next to it (its path plus ".snap") as it grows
+ * and when the program ends, so startup loads the snapshot and only replays
+ * what came after it.
+ * With --jmx, command metrics are registered over JMX as classes:type=CommandMetrics;
+ * they are always printed by the PM command.
+ * With --today M/D/YYYY, the booking rules take that date as today instead
+ * of the system date (see DateClock.fixed()), so a command dump can be
+ * replayed against the day it was recorded on.
+ * Usage: RunProgram [--pipelined] [--jmx] [--today date] [--journal file [--fsync policy]] [commandFile [outputFile]]
+ */
 public class RunProgram {
-    public static void main(String[] args){
-        new Frontend().run();
+    // Define constant for the size of the batch mode output buffer, in chars
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    public static void main(String[] args) throws IOException {
+        boolean isPipelined = false;
+        boolean isJmx = false;
+        Path journal = null;
+        FsyncPolicy policy = FsyncPolicy.GROUP;
+        Date today = null;
+        int first = 0;
+        while(first < args.length && args[first].startsWith("--")){
+            switch(args[first]) {
+                case "--pipelined" -> isPipelined = true;
+                case "--jmx" -> isJmx = true;
+                case "--journal" -> journal = Path.of(args[++first]);
+                case "--fsync" -> policy = FsyncPolicy.valueOf(args[++first].toUpperCase());
+                case "--today" -> today = parseToday(args[++first]);
+                default -> throw new IllegalArgumentException(args[first] + " - unknown option.");
+            }
+            first++;
+        }
+
+        // the clock is installed before the journal is replayed, since lock-free bookings depend on today
+        if(today != null){
+            Date.setClock(DateClock.fixed(today));
+        }
+        Frontend frontend = new Frontend();
+        if(isJmx){
+            try{
+                frontend.getMetrics().register();
+            }
+            catch(JMException e){
+                System.err.println("Command metrics are not available over JMX: " + e.getMessage());
+            }
+        }
+        if(journal != null){
+            frontend.openJournal(journal, policy);
+        }
+        try{
+            if(args.length == first){
+                frontend.run();
+            }
+            else if(args.length > first + 1){
+                try (Writer writer = Files.newBufferedWriter(Path.of(args[first + 1]), Charset.defaultCharset())) {
+                    runFile(frontend, Path.of(args[first]), writer, isPipelined);
+                }
+            }
+            else{
+                Writer writer = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(FileDescriptor.out), Charset.defaultCharset()), WRITE_BUFFER);
+                runFile(frontend, Path.of(args[first]), writer, isPipelined);
+            }
+        }
+        finally{
+            frontend.closeJournal();
+        }
+    }
+
+    /**
+     * Parses the date given to --today.
+     *
+     * @param text the date, as M/D/YYYY
+     * @return the date
+     * @throws IllegalArgumentException if the text is not a valid calendar date
+     */
+    private static Date parseToday(String text){
+        CommandTokenizer tokenizer = new CommandTokenizer();
+        tokenizer.splitOnSpace(text);
+        Date today;
+        try{
+            today = tokenizer.parseDate(0);
+        }
+        catch(NumberFormatException | IndexOutOfBoundsException e){
+            throw new IllegalArgumentException(text + " - invalid date for --today.", e);
+        }
+        if(!today.isValid()){
+            throw new IllegalArgumentException(text + " - invalid date for --today.");
+        }
+        return today;
+    }
+
+    /**
+     * Runs a command file in batch or pipelined mode.
+     *
+     * @param frontend the Frontend to run the commands
+     * @param commands path of the file of commands
+     * @param writer where the responses are written
+     * @param isPipelined true to read, run, and write on separate threads
+     * @throws IOException if the file cannot be read or the writer fails
+     */
+    private static void runFile(Frontend frontend, Path commands, Writer writer, boolean isPipelined)
+            throws IOException {
+        if(isPipelined){
+            frontend.runPipelined(commands, writer);
+        }
+        else{
+            frontend.runBatch(commands, writer);
+        }
     }
 }
@@ -0,0 +1,404 @@
+package classes;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * This class implements a point-in-time binary image of the fleet,
+ * reservations, and trips.
+ * An image is captured on the thread that changes the containers, which only
+ * copies references and mileages, and can then be written to a file on
+ * another thread while the containers keep changing. The file is loaded
+ * through a memory-mapped FileChannel, and the containers are rebuilt in
+ * bulk with addAll().
+ * Every vehicle is written once, in a table, and bookings and trips refer to
+ * it by its index. Vehicles that left the fleet but are still referred to by
+ * a booking or trip are kept in the table, flagged as not in the fleet.
+ * The file is: int magic, short version, long journal generation, int
+ * counts of vehicles, bookings, and trips; then the vehicles (plate as an
+ * int length and UTF-8 bytes, date obtained, make ordinal, mileage,
+ * in-fleet flag); the bookings (vehicle index, beginning and ending dates,
+ * employee ordinal or -1); the trips (the same, then the beginning
+ * and ending mileage); and an int CRC32C of everything before it. Dates are
+ * written as longs (see Date.toPackedLong()), so every year loads as it was.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class Snapshot {
+    // Define constants for the file header
+    private static final int MAGIC = 0x564D5353; //"VMSS"
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 26;
+
+    // Define constant for the size of the write buffer, in bytes
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    // Define constant for the number of entries in the date cache used while loading, a power of two
+    private static final int DATE_CACHE = 1 << 12;
+
+    // Define constant for a missing employee
+    private static final byte NO_EMPLOYEE = -1;
+
+    private static final Make[] MAKES = Make.values();
+    private static final Employee[] EMPLOYEES = Employee.values();
+
+    private final long generation; //last journal generation the image includes
+    private final Vehicle[] fleet;
+    private final int[] mileages; //mileage of each fleet vehicle when captured
+    private final Booking[] bookings;
+    private final Trip[] trips;
+
+    /**
+     * Private constructor for a captured image.
+     */
+    private Snapshot(long generation, Vehicle[] fleet, int[] mileages, Booking[] bookings, Trip[] trips) {
+        this.generation = generation;
+        this.fleet = fleet;
+        this.mileages = mileages;
+        this.bookings = bookings;
+        this.trips = trips;
+    }
+
+    /**
+     * Captures the containers as they are now. Must be called on the thread
+     * that changes them; the image can then be written on any thread.
+     *
+     * @param generation the last journal generation the image includes
+     * @param fleet the fleet to capture
+     * @param reservation the reservations to capture
+     * @param triplist the trips to capture
+     * @return the captured image
+     */
+    public static Snapshot capture(long generation, Fleet fleet, Reservation reservation, TripList triplist) {
+        Vehicle[] vehicles = fleet.toArray();
+        int[] mileages = new int[vehicles.length];
+        for (int i = 0; i < vehicles.length; i++) {
+            mileages[i] = vehicles[i].getMileage();
+        }
+        return new Snapshot(generation, vehicles, mileages, reservation.toArray(), triplist.toArray());
+    }
+
+    /**
+     * Getter for the journal generation of the image.
+     *
+     * @return the last journal generation the image includes
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Writes the image to a file. The image is written to a temporary file,
+     * forced to disk, and then moved over the old file, so a crash leaves
+     * either the old snapshot or the new one.
+     *
+     * @param path path of the snapshot file
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        IdentityHashMap<Vehicle, Integer> ids = new IdentityHashMap<>(2 * this.fleet.length);
+        ArrayList<Vehicle> others = new ArrayList<>();
+        for (int i = 0; i < this.fleet.length; i++) {
+            ids.put(this.fleet[i], i);
+        }
+        for (Booking booking : this.bookings) {
+            addVehicle(ids, others, booking.getVehicle());
+        }
+        for (Trip trip : this.trips) {
+            addVehicle(ids, others, trip.getBooking().getVehicle());
+        }
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.reserve(HEADER_SIZE);
+            out.buffer.putInt(MAGIC).putShort(VERSION).putLong(this.generation)
+                    .putInt(this.fleet.length + others.size()).putInt(this.bookings.length)
+                    .putInt(this.trips.length);
+            for (int i = 0; i < this.fleet.length; i++) {
+                putVehicle(out, this.fleet[i], this.mileages[i], true);
+            }
+            for (Vehicle vehicle : others) {
+                putVehicle(out, vehicle, vehicle.getMileage(), false);
+            }
+            for (Booking booking : this.bookings) {
+                putBooking(out, ids, booking);
+            }
+            for (Trip trip : this.trips) {
+                putBooking(out, ids, trip.getBooking());
+                out.reserve(2 * Integer.BYTES);
+                out.buffer.putInt(trip.getBeginMileage()).putInt(trip.getEndMileage());
+            }
+            out.finish();
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Helper method to write() that gives a vehicle outside the fleet the
+     * next index, if it does not have one.
+     */
+    private static void addVehicle(IdentityHashMap<Vehicle, Integer> ids, ArrayList<Vehicle> others,
+                                   Vehicle vehicle) {
+        if (!ids.containsKey(vehicle)) {
+            ids.put(vehicle, ids.size());
+            others.add(vehicle);
+        }
+    }
+
+    /**
+     * Helper method to write() that writes one entry of the vehicle table.
+     */
+    private static void putVehicle(Output out, Vehicle vehicle, int mileage, boolean isInFleet) throws IOException {
+        byte[] plate = vehicle.getPlate().getBytes(StandardCharsets.UTF_8);
+        out.reserve(plate.length + 18);
+        out.buffer.putInt(plate.length).put(plate).putLong(vehicle.getObtained().toPackedLong())
+                .put((byte) vehicle.getMake().ordinal()).putInt(mileage).put((byte) (isInFleet ? 1 : 0));
+    }
+
+    /**
+     * Helper method to write() that writes the fields of a booking.
+     */
+    private static void putBooking(Output out, IdentityHashMap<Vehicle, Integer> ids, Booking booking)
+            throws IOException {
+        Employee employee = booking.getEmployee();
+        out.reserve(Integer.BYTES + 2 * Long.BYTES + 1);
+        out.buffer.putInt(ids.get(booking.getVehicle())).putLong(booking.getBegin().toPackedLong())
+                .putLong(booking.getEnd().toPackedLong())
+                .put(employee == null ? NO_EMPLOYEE : (byte) employee.ordinal());
+    }
+
+    /**
+     * Loads a snapshot file into empty containers.
+     *
+     * @param path path of the snapshot file
+     * @param fleet the fleet to load into
+     * @param reservation the reservations to load into
+     * @param triplist the trips to load into
+     * @return the last journal generation the snapshot includes, or 0 if there is no snapshot
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public static long load(Path path, Fleet fleet, Reservation reservation, TripList triplist) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("snapshot is too large to map: " + size + " bytes");
+            }
+            if (size < HEADER_SIZE + Integer.BYTES) {
+                throw new IOException("snapshot is too short: " + path);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int end = (int) size - Integer.BYTES;
+            CRC32C checksum = new CRC32C();
+            checksum.update(in.slice(0, end));
+            if ((int) checksum.getValue() != in.getInt(end)) {
+                throw new IOException("snapshot is damaged: " + path);
+            }
+
+            if (in.getInt() != MAGIC) {
+                throw new IOException("not a snapshot file: " + path);
+            }
+            short version = in.getShort();
+            if (version != VERSION) {
+                throw new IOException("unsupported snapshot version " + version);
+            }
+            long generation = in.getLong();
+            Vehicle[] vehicles = new Vehicle[in.getInt()];
+            Booking[] bookings = new Booking[in.getInt()];
+            Trip[] trips = new Trip[in.getInt()];
+
+            Date[] dates = new Date[DATE_CACHE];
+            Vehicle[] inFleet = new Vehicle[vehicles.length];
+            int fleetSize = 0;
+            byte[] plate = new byte[16];
+            for (int i = 0; i < vehicles.length; i++) {
+                int length = in.getInt();
+                if (length > plate.length) {
+                    plate = new byte[Math.max(length, 2 * plate.length)];
+                }
+                in.get(plate, 0, length);
+                vehicles[i] = new Vehicle(new String(plate, 0, length, StandardCharsets.UTF_8),
+                        getDate(in, dates), MAKES[in.get()], in.getInt());
+                if (in.get() != 0) {
+                    inFleet[fleetSize++] = vehicles[i];
+                }
+            }
+            for (int i = 0; i < bookings.length; i++) {
+                bookings[i] = getBooking(in, vehicles, dates);
+            }
+            for (int i = 0; i < trips.length; i++) {
+                trips[i] = new Trip(getBooking(in, vehicles, dates), in.getInt(), in.getInt());
+            }
+
+            Vehicle[] fleetVehicles = new Vehicle[fleetSize];
+            System.arraycopy(inFleet, 0, fleetVehicles, 0, fleetSize);
+            fleet.addAll(fleetVehicles);
+            reservation.addAll(bookings);
+            triplist.addAll(trips);
+            return generation;
+        }
+    }
+
+    /**
+     * Helper method to load() that reads the fields of a booking.
+     */
+    private static Booking getBooking(ByteBuffer in, Vehicle[] vehicles, Date[] dates) {
+        Vehicle vehicle = vehicles[in.getInt()];
+        Date begin = getDate(in, dates);
+        Date end = getDate(in, dates);
+        byte employee = in.get();
+        return new Booking(begin, end, employee == NO_EMPLOYEE ? null : EMPLOYEES[employee], vehicle);
+    }
+
+    /**
+     * Helper method to load() that reads a date written by
+     * Date.toPackedLong(). Dates never change, so recently read dates are
+     * kept in a small cache and shared, instead of creating a Date for every
+     * field.
+     *
+     * @param in the buffer positioned at the date
+     * @param dates the cache, indexed by the low bits of the day and year
+     * @return the date
+     */
+    private static Date getDate(ByteBuffer in, Date[] dates) {
+        long packed = in.getLong();
+        int slot = (int) (packed ^ (packed >>> Integer.SIZE)) & (dates.length - 1);
+        Date date = dates[slot];
+        if (date == null || date.toPackedLong() != packed) {
+            date = Date.ofPackedLong(packed);
+            dates[slot] = date;
+        }
+        return date;
+    }
+
+    /**
+     * Private inner class that writes a file through a buffer, keeping a
+     * checksum of everything written.
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final CRC32C checksum;
+
+        /**
+         * Constructor for an output at the start of the file.
+         *
+         * @param channel the file to write
+         */
+        private Output(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            this.checksum = new CRC32C();
+        }
+
+        /**
+         * Makes room in the buffer for the given number of bytes, writing
+         * out what is in it if needed.
+         *
+         * @param size the number of bytes about to be put
+         * @throws IOException if the file cannot be written
+         */
+        private void reserve(int size) throws IOException {
+            if (this.buffer.remaining() < size) {
+                drain();
+                if (this.buffer.capacity() < size) {
+                    throw new IOException("snapshot entry of " + size + " bytes is too large");
+                }
+            }
+        }
+
+        /**
+         * Writes out the buffer, adding it to the checksum.
+         *
+         * @throws IOException if the file cannot be written
+         */
+        private void drain() throws IOException {
+            this.checksum.update(this.buffer.array(), 0, this.buffer.position());
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        /**
+         * Writes out the rest of the buffer, followed by the checksum.
+         *
+         * @throws IOException if the file cannot be written
+         */
+        private void finish() throws IOException {
+            drain();
+            this.buffer.putInt((int) this.checksum.getValue()).flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        // cold start test: a fleet with 1M completed trips
+        int vehicleCount = 10_000;
+        int tripCount = 1_000_000;
+        Fleet fleet = new Fleet();
+        Reservation reservation = new Reservation();
+        TripList triplist = new TripList();
+        Vehicle[] vehicles = new Vehicle[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++) {
+            vehicles[i] = new Vehicle("P" + i, new Date(1, 1 + i % 28, 2020), MAKES[i % MAKES.length], 1000);
+        }
+        fleet.addAll(vehicles);
+        for (int i = 0; i < tripCount; i++) {
+            Date day = Date.ofPacked(Date.pack(1 + (i / 28) % 12, 1 + i % 28, 2000 + i / 336));
+            Booking booking = new Booking(day, day, EMPLOYEES[i % EMPLOYEES.length], vehicles[i % vehicleCount]);
+            triplist.add(new Trip(booking, i, i + 10));
+        }
+        reservation.add(new Booking(new Date(1, 2, 2030), new Date(1, 3, 2030), Employee.KAUR, vehicles[0]));
+
+        Path path = Files.createTempFile("snapshot", ".snap");
+        Snapshot.capture(7, fleet, reservation, triplist).write(path);
+        System.out.println(Files.size(path) + " bytes");
+
+        long start = System.nanoTime();
+        Fleet loadedFleet = new Fleet();
+        Reservation loadedReservation = new Reservation();
+        TripList loadedTrips = new TripList();
+        long generation = Snapshot.load(path, loadedFleet, loadedReservation, loadedTrips);
+        System.out.println("loaded in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        System.out.println(generation); // 7
+        System.out.println(loadedTrips.getSize()); // 1000000
+        System.out.println(loadedReservation.getEarliestBooking("P0")); // P0:FORD:1/1/2020 [mileage:1000] [beginning 1/2/2030 ending 1/3/2030:KAUR]
+
+        // round trip test: dates with years too large or too small to pack into an int
+        Fleet farFleet = new Fleet();
+        Reservation farReservation = new Reservation();
+        TripList farTrips = new TripList();
+        Vehicle far = new Vehicle("FAR1", new Date(1, 1, -5000000), Make.FORD, 100);
+        farFleet.add(far);
+        farReservation.add(new Booking(new Date(1, 1, 5000000), new Date(1, 2, 5000000), Employee.KAUR, far));
+        farTrips.add(new Trip(new Booking(new Date(3, 1, 4194304), new Date(3, 2, 4194304), Employee.KAUR, far), 100, 200));
+        Snapshot.capture(8, farFleet, farReservation, farTrips).write(path);
+        Fleet loadedFar = new Fleet();
+        Reservation loadedFarReservation = new Reservation();
+        TripList loadedFarTrips = new TripList();
+        Snapshot.load(path, loadedFar, loadedFarReservation, loadedFarTrips);
+        System.out.println(loadedFar.searchByPlate("FAR1")); // FAR1:FORD:1/1/-5000000 [mileage:100]
+        System.out.println(loadedFarReservation.getEarliestBooking("FAR1")); // FAR1:FORD:1/1/-5000000 [mileage:100] [beginning 1/1/5000000 ending 1/2/5000000:KAUR]
+        System.out.println(loadedFarTrips.toArray()[0].getBooking().getEnd()); // 3/2/4194304
+        Files.delete(path);
+    }
+}
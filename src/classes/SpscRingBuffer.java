@@ -0,0 +1,168 @@
+package classes;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class implements a bounded ring buffer for passing objects from one
+ * producer thread to one consumer thread.
+ * The producer only writes the tail and the consumer only writes the head,
+ * so no locks are needed: each side publishes its position with a release
+ * store and reads the other side's with a volatile load. Each side also
+ * keeps a cached copy of the other's position, and only reloads it when the
+ * buffer looks full or empty.
+ * The put() and take() methods wait by spinning, then yielding, then parking
+ * briefly, so an idle stage does not burn a core for long.
+ *
+ * @param <E> the type of the objects passed through the buffer
+ * @author Jai Patel, Aaman Gafur
+ */
+public class SpscRingBuffer<E> {
+    // Define constants for how long to spin and yield before parking while waiting
+    private static final int SPIN_LIMIT = 100;
+    private static final int YIELD_LIMIT = 200;
+    private static final long PARK_NANOS = 10_000;
+
+    private final Object[] elements;
+    private final int mask; //capacity - 1, to map a position to an index
+    private final AtomicLong head; //next position to take, written by the consumer
+    private final AtomicLong tail; //next position to put, written by the producer
+    private long cachedHead; //producer's last read of head
+    private long cachedTail; //consumer's last read of tail
+
+    /**
+     * Constructor for an empty ring buffer.
+     *
+     * @param capacity the number of objects the buffer holds, a power of two
+     * @throws IllegalArgumentException if capacity is not a positive power of two
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.elements = new Object[capacity];
+        this.mask = capacity - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+    }
+
+    /**
+     * Adds an object to the buffer if there is room. Only the producer thread
+     * may call this method.
+     *
+     * @param element the object to add, not null
+     * @return true if the object was added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long position = this.tail.get();
+        if (position - this.cachedHead == this.elements.length) {
+            this.cachedHead = this.head.get();
+            if (position - this.cachedHead == this.elements.length) {
+                return false;
+            }
+        }
+        this.elements[(int) position & this.mask] = element;
+        this.tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest object from the buffer, if there is one. Only the
+     * consumer thread may call this method.
+     *
+     * @return the oldest object, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long position = this.head.get();
+        if (position == this.cachedTail) {
+            this.cachedTail = this.tail.get();
+            if (position == this.cachedTail) {
+                return null;
+            }
+        }
+        int index = (int) position & this.mask;
+        E element = (E) this.elements[index];
+        this.elements[index] = null;
+        this.head.lazySet(position + 1);
+        return element;
+    }
+
+    /**
+     * Adds an object to the buffer, waiting for room if it is full.
+     *
+     * @param element the object to add, not null
+     */
+    public void put(E element) {
+        int idle = 0;
+        while (!offer(element)) {
+            idle = idle(idle);
+        }
+    }
+
+    /**
+     * Removes the oldest object from the buffer, waiting for one if it is empty.
+     *
+     * @return the oldest object
+     */
+    public E take() {
+        int idle = 0;
+        E element;
+        while ((element = poll()) == null) {
+            idle = idle(idle);
+        }
+        return element;
+    }
+
+    /**
+     * Helper method to put() and take() that waits a little longer each
+     * time it is called in a row.
+     *
+     * @param count the number of times it has been called in a row
+     * @return the count to pass in on the next call
+     */
+    private static int idle(int count) {
+        if (count < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        }
+        else if (count < YIELD_LIMIT) {
+            Thread.yield();
+        }
+        else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return count;
+        }
+        return count + 1;
+    }
+
+    /**
+     * Getter for the number of objects the buffer holds.
+     *
+     * @return the capacity of the buffer
+     */
+    public int getCapacity() {
+        return this.elements.length;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        SpscRingBuffer<Integer> buffer = new SpscRingBuffer<>(4);
+        System.out.println(buffer.poll()); // null (empty)
+        for (int i = 0; i < 5; i++) {
+            System.out.println(buffer.offer(i)); // true 4 times, then false (full)
+        }
+        System.out.println(buffer.poll()); // 0
+
+        SpscRingBuffer<Integer> pipe = new SpscRingBuffer<>(8);
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= 1_000_000; i++) {
+                pipe.put(i);
+            }
+        });
+        producer.start();
+        long sum = 0;
+        for (int i = 1; i <= 1_000_000; i++) {
+            sum += pipe.take();
+        }
+        producer.join();
+        System.out.println(sum); // 500000500000
+    }
+}
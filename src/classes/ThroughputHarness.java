@@ -0,0 +1,218 @@
+package classes;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+
+/**
+ * Runs a stream of commands from a WorkloadGenerator through a Frontend in
+ * the same process and reports what a day of that workload costs: commands
+ * per second, the latency percentiles of single commands, and the bytes
+ * allocated per command.
+ * The commands are generated before the timing starts, and a first stream
+ * is run through another Frontend to warm up the JIT. Responses are
+ * appended to a buffer that is emptied as it fills, so writing them out is
+ * not part of the timing. The workload is generated for today, and the
+ * clock installed in Date is fixed to today so the run gives the same
+ * results however long it takes.
+ * Options are given as name=value: commands, warmup, fleet, employees,
+ * horizon, skew, conflicts, seed, mix (seven weights separated by colons
+ * for A:D:B:C:R:F:P), and script, a file to also write the commands to.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class ThroughputHarness {
+    // Define constants for the defaults and the size of the response buffer, in chars
+    private static final int COMMANDS = 200_000;
+    private static final int WARMUP = 50_000;
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final String[] options; //name=value pairs from the command line
+
+    /**
+     * Creates a harness reading the given options.
+     *
+     * @param options name=value pairs
+     */
+    private ThroughputHarness(String[] options) {
+        this.options = options;
+    }
+
+    /**
+     * Finds the value of an option.
+     *
+     * @param name the name of the option
+     * @param otherwise the value if the option is not given
+     * @return the value given for the option, or otherwise
+     */
+    private String option(String name, String otherwise) {
+        for (String option : this.options) {
+            if (option.startsWith(name + "=")) {
+                return option.substring(name.length() + 1);
+            }
+        }
+        return otherwise;
+    }
+
+    /**
+     * Creates a generator configured by the options.
+     *
+     * @param seed the seed of the random numbers
+     * @return the generator
+     */
+    private WorkloadGenerator generator(long seed) {
+        WorkloadGenerator generator = new WorkloadGenerator(seed, Date.ofEpochDay(Date.getClock().today()));
+        generator.setFleetSize(Integer.parseInt(option("fleet", "1000")));
+        generator.setEmployeeCount(Integer.parseInt(option("employees", "8")));
+        generator.setHorizon(Integer.parseInt(option("horizon", "90")));
+        generator.setDateSkew(Double.parseDouble(option("skew", "1")));
+        generator.setConflictRate(Double.parseDouble(option("conflicts", "0.1")));
+        String mix = option("mix", null);
+        if (mix != null) {
+            String[] weights = mix.split(":");
+            if (weights.length != 7) {
+                throw new IllegalArgumentException(mix + " - mix needs 7 weights for A:D:B:C:R:F:P.");
+            }
+            int[] w = new int[weights.length];
+            for (int i = 0; i < w.length; i++) {
+                w[i] = Integer.parseInt(weights[i]);
+            }
+            generator.setMix(w[0], w[1], w[2], w[3], w[4], w[5], w[6]);
+        }
+        return generator;
+    }
+
+    /**
+     * Runs commands through a Frontend, recording the latency of each one
+     * and hashing the responses, so two runs can be checked for the same
+     * output without keeping it.
+     *
+     * @param frontend the Frontend to run the commands
+     * @param commands the command lines
+     * @param latencies where the latency of each command is recorded, or null
+     * @return a hash of every response, ignoring the line separator
+     */
+    static long run(Frontend frontend, String[] commands, LatencyHistogram latencies) {
+        CommandTokenizer tokens = new CommandTokenizer();
+        StringBuilder out = new StringBuilder();
+        long hash = 0;
+        for (String request : commands) {
+            long start = System.nanoTime();
+            char command = Frontend.commandOf(request);
+            Frontend.tokenize(command, request, tokens);
+            frontend.execute(command, request, tokens, out);
+            long elapsed = System.nanoTime() - start;
+            if (latencies != null) {
+                latencies.record(elapsed);
+            }
+            if (out.length() >= FLUSH_THRESHOLD) {
+                hash = hash(hash, out);
+                out.setLength(0);
+            }
+        }
+        return hash(hash, out);
+    }
+
+    /**
+     * Folds text into a hash, skipping carriage returns so the hash is the
+     * same whatever the line separator is.
+     *
+     * @param hash the hash so far
+     * @param text the text to fold in
+     * @return the new hash
+     */
+    private static long hash(long hash, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\r') {
+                hash = hash * 31 + c;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Sums the collections and collection times of every garbage collector.
+     *
+     * @return the number of collections and the milliseconds spent in them
+     */
+    private static long[] collections() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(0, collector.getCollectionCount());
+            totals[1] += Math.max(0, collector.getCollectionTime());
+        }
+        return totals;
+    }
+
+    /**
+     * Finds the bytes allocated so far by the current thread.
+     *
+     * @return the bytes allocated, or -1 if the JVM cannot tell
+     */
+    static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+            if (counting.isThreadAllocatedMemorySupported() && counting.isThreadAllocatedMemoryEnabled()) {
+                return counting.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Generates the workload, runs it, and prints the report.
+     *
+     * @throws IOException if the script cannot be written
+     */
+    private void runAll() throws IOException {
+        int count = Integer.parseInt(option("commands", String.valueOf(COMMANDS)));
+        int warmup = Integer.parseInt(option("warmup", String.valueOf(WARMUP)));
+        long seed = Long.parseLong(option("seed", "1"));
+        Date.setClock(DateClock.fixed(Date.ofEpochDay(DateClock.SYSTEM.today())));
+
+        String script = option("script", null);
+        if (script != null) {
+            generator(seed).write(Path.of(script), count);
+        }
+        String[] commands = generator(seed).generate(count);
+        run(new Frontend(), generator(seed + 1).generate(warmup), null);
+
+        Frontend frontend = new Frontend();
+        LatencyHistogram latencies = new LatencyHistogram();
+        long[] gcBefore = collections();
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        run(frontend, commands, latencies);
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        long[] gcAfter = collections();
+
+        long[] buckets = new long[LatencyHistogram.BUCKETS];
+        latencies.addTo(buckets);
+        double seconds = elapsed / 1e9;
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("*Workload of %,d commands, %,d warm-up commands.%n", count, warmup));
+        out.append(String.format("throughput: %,.0f commands/s (%.3f s)%n", count / seconds, seconds));
+        out.append(String.format("latency ns: p50 %,d  p90 %,d  p99 %,d  p999 %,d  p9999 %,d%n",
+                LatencyHistogram.valueAt(buckets, 50), LatencyHistogram.valueAt(buckets, 90),
+                LatencyHistogram.valueAt(buckets, 99), LatencyHistogram.valueAt(buckets, 99.9),
+                LatencyHistogram.valueAt(buckets, 99.99)));
+        if (allocatedBefore < 0) {
+            out.append("allocation: not available on this JVM").append(System.lineSeparator());
+        }
+        else {
+            out.append(String.format("allocation: %,.0f bytes/command, %,.1f MB/s%n",
+                    (double) allocated / count, allocated / seconds / (1 << 20)));
+        }
+        out.append(String.format("gc: %,d collections, %,d ms%n", gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]));
+        frontend.getMetrics().print(out);
+        System.out.print(out);
+    }
+
+    public static void main(String[] args) throws IOException {
+        new ThroughputHarness(args).runAll();
+    }
+}
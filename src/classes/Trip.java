@@ -96,11 +96,24 @@ public class Trip {
      */
     @Override
     public String toString(){
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the string representation of this Trip to a buffer, in the
+     * same format as toString(), without building intermediate strings.
+     *
+     * @param out the buffer to append to
+     * @return the buffer, so more can be appended to it
+     */
+    public StringBuilder appendTo(StringBuilder out){
         int mileageUsed = this.endMileage - this.beginMileage;
         Booking booking = this.booking;
-        return String.format("%s %s ~ %s original mileage: %s current mileage: %s mileage used: %s",
-                booking.getVehicle().getPlate(), booking.getBegin(), booking.getEnd(),this.beginMileage,
-                this.endMileage, mileageUsed);
+        out.append(booking.getVehicle().getPlate()).append(' ');
+        booking.getBegin().appendTo(out).append(" ~ ");
+        return booking.getEnd().appendTo(out).append(" original mileage: ").append(this.beginMileage)
+                .append(" current mileage: ").append(this.endMileage)
+                .append(" mileage used: ").append(mileageUsed);
     }
 
     public static void main(String[] args){
@@ -1,20 +1,32 @@
 package classes;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 /**
  * This class implements the TripList object
  * Includes a node of the last completed trip added to the list, and the size of the list
- * Trips are printed out in a list order by their ending dates.
+ * Trips are kept in order of their ending dates as they are added, so the
+ * list can be printed or walked in that order without copying or sorting.
+ * Trips with the same ending date stay in the order they were added.
+ * The last node of each ending date is kept in a tree map, so a trip that
+ * comes back out of order finds its place without walking the list.
  *
  * @author Jai Patel
  */
 
-public class TripList {
+public class TripList implements Iterable<Trip> {
+    private static final String NEWLINE = System.lineSeparator(); //ends each printed line, as println() does
+
     /**
      * Private inner class representing a single node in the circular linked list.
      * Includes a trip and a pointer to the next trip in the list
      */
     private static class Node{
         private final Trip trip;
+        private final int end; //packed ending date of the trip's booking
         private Node next;
 
         /**
@@ -24,17 +36,65 @@ public class TripList {
          */
         public Node(Trip trip){
             this.trip = trip;
+            this.end = trip.getBooking().getEnd().toPackedInt();
             this.next = null;
         }
     }
 
+    /**
+     * Private inner class that walks the circular linked list once, starting
+     * from the trip with the earliest ending date.
+     */
+    private class TripIterator implements Iterator<Trip>{
+        private Node next;
+        private int remaining;
+
+        /**
+         * Default constructor for an iterator positioned at the earliest trip.
+         */
+        public TripIterator(){
+            this.next = (last == null) ? null : last.next;
+            this.remaining = size;
+        }
+
+        /**
+         * Checks whether any trip is left to visit.
+         *
+         * @return true if there is another trip, false otherwise
+         */
+        @Override
+        public boolean hasNext(){
+            return this.remaining > 0;
+        }
+
+        /**
+         * Moves to the next trip.
+         *
+         * @return the next trip in the list
+         */
+        @Override
+        public Trip next(){
+            if(this.remaining == 0){
+                throw new NoSuchElementException();
+            }
+            Trip trip = this.next.trip;
+            this.next = this.next.next;
+            this.remaining--;
+            return trip;
+        }
+    }
+
     private Node last;
+    private int size;
+    private TreeMap<Integer, Node> lastByEnd; //packed ending date -> last node ending on that date
 
     /**
      * Default constructor to create an empty TripList object.
      */
     public TripList(){
         this.last = null;
+        this.size = 0;
+        this.lastByEnd = new TreeMap<>();
     }
 
     /**
@@ -47,43 +107,102 @@ public class TripList {
     }
 
     /**
-     * Getter for the size of the trip list.
+     * Getter for the size of the trip list, which is kept up to date by add().
      *
      * @return the size of list
      */
     public int getSize(){
-        if(last == null){
-            return 0;
-        }
-
-        Node curr = this.last.next;
-        int size = 0;
-
-        do{
-            curr = curr.next;
-            size++;
-        } while (curr != this.last.next);
-
-        return size;
+        return this.size;
     }
 
     /**
-     * Adds a completed Trip object to the end of the circular linked list.
+     * Adds a completed Trip object to the circular linked list, after every
+     * trip ending on or before the same date.
+     * Trips mostly come back in order of their ending dates, so the new node
+     * usually goes right after the last node. Otherwise it goes right after
+     * the last node ending on or before the same date, found in lastByEnd,
+     * so either way it takes O(log d) for d different ending dates.
      *
      * @param trip The Trip object to be added
      */
     public void add(Trip trip){
         Node newNode = new Node(trip);
+        int end = newNode.end;
 
-        if(this.getSize() == 0){
+        if(this.size == 0){
             newNode.next = newNode;
+            this.last = newNode;
         }
-        else {
+        else if(end >= this.last.end){
             newNode.next = this.last.next;
             this.last.next = newNode;
+            this.last = newNode;
+        }
+        else {
+            Map.Entry<Integer, Node> floor = this.lastByEnd.floorEntry(end);
+            // with no node ending on or before it, the new node goes after the last one and becomes the first
+            Node prev = (floor == null) ? this.last : floor.getValue();
+            newNode.next = prev.next;
+            prev.next = newNode;
+        }
+        this.lastByEnd.put(end, newNode);
+
+        this.size++;
+    }
+
+    /**
+     * Returns an iterator over the trips, in order of their ending dates.
+     *
+     * @return an iterator over the trips
+     */
+    @Override
+    public Iterator<Trip> iterator(){
+        return new TripIterator();
+    }
+
+    /**
+     * Performs the action on every trip, in order of their ending dates,
+     * without creating an iterator.
+     *
+     * @param action the action to be performed on each trip
+     */
+    @Override
+    public void forEach(Consumer<? super Trip> action){
+        if(this.last == null){
+            return;
+        }
+        Node curr = this.last.next;
+        for(int i = 0; i < this.size; i++){
+            action.accept(curr.trip);
+            curr = curr.next;
         }
+    }
 
-        this.last = newNode;
+    /**
+     * Performs the action on every trip ending within a date range, in order
+     * of their ending dates. The walk stops at the first trip ending after
+     * the range.
+     *
+     * @param from earliest ending date to include
+     * @param to latest ending date to include
+     * @param action the action to be performed on each trip in the range
+     */
+    public void forEachEndingBetween(Date from, Date to, Consumer<? super Trip> action){
+        if(this.last == null){
+            return;
+        }
+        int first = from.toPackedInt();
+        int last = to.toPackedInt();
+        Node curr = this.last.next;
+        for(int i = 0; i < this.size; i++){
+            if(curr.end > last){
+                return;
+            }
+            if(curr.end >= first){
+                action.accept(curr.trip);
+            }
+            curr = curr.next;
+        }
     }
 
     /**
@@ -91,36 +210,58 @@ public class TripList {
      * Trips will be printed out based on order of their ending dates
      */
     public void print(){
-        if(this.getSize() == 0){
-            System.out.println("There is no archived trips.");
+        StringBuilder out = new StringBuilder();
+        print(out);
+        System.out.print(out);
+    }
+
+    /**
+     * Appends the lines of print() to an output buffer instead of printing them.
+     *
+     * @param out the buffer the list is appended to
+     */
+    public void print(StringBuilder out){
+        if(this.size == 0){
+            out.append("There is no archived trips.").append(NEWLINE);
             return;
         }
 
-        Trip[] array = this.toArray();
-        insertionSort(array);
+        out.append("*List of completed trips ordered by ending date.").append(NEWLINE);
+        Node curr = this.last.next;
+        for(int i = 0; i < this.size; i++){
+            curr.trip.appendTo(out).append(NEWLINE);
+            curr = curr.next;
+        }
+        out.append("*end of list.").append(NEWLINE);
+    }
 
-        System.out.println("*List of completed trips ordered by ending date.");
-        for (Trip trip : array) {
-            System.out.println(trip);
+    /**
+     * Adds many trips at once. Trips already in order of their ending dates,
+     * as from toArray(), are each added at the end of the list without a search.
+     *
+     * @param trips the trips to be added
+     */
+    public void addAll(Trip[] trips){
+        for(Trip trip : trips){
+            this.add(trip);
         }
-        System.out.println("*end of list.");
     }
 
     /**
-     * Helper method to convert the linked list of Trip objects, into an array.
+     * Helper method to convert the linked list of Trip objects, into an array
+     * ordered by ending date.
      *
      * @return an Array of Trip objects
      */
     public Trip[] toArray(){
-        if(this.getSize() == 0){
-            return new Trip[0];
+        Trip[] tripArray = new Trip[this.size];
+        if(this.size == 0){
+            return tripArray;
         }
 
-        Trip[] tripArray = new Trip[this.getSize()];
-
         Node curr = this.last.next;
 
-        for(int i = 0; i < this.getSize(); i++){
+        for(int i = 0; i < this.size; i++){
             tripArray[i] = curr.trip;
             curr = curr.next;
         }
@@ -128,36 +269,6 @@ public class TripList {
         return tripArray;
     }
 
-    /**
-     * Helper method to sort the given array of Trip objects using the Insertion Sort algorithm.
-     * The sort order is based on the comparison of each trip's end date.
-     *
-     * @param array The Trip array to be sorted in place
-     */
-    private void insertionSort(Trip[] array) {
-        int n = array.length;
-
-        for(int i = 1; i < n; i++){
-            Trip keyTrip = array[i];
-            Date keyDate = keyTrip.getBooking().getEnd();
-
-            int j = i - 1;
-
-            while(j >= 0){
-                Date compareDate = array[j].getBooking().getEnd();
-                if(keyDate.compareTo(compareDate) < 0){
-                    array[j + 1] = array[j];
-                    j = j - 1;
-                }
-                else {
-                    break;
-                }
-            }
-
-            array[j + 1] = keyTrip;
-        }
-    }
-
     public static void main(String[] args){
         Date d1 = new Date(1, 18, 2025);
         Date d2 = new Date(1, 19, 2025);
@@ -190,6 +301,16 @@ public class TripList {
         list.add(t4);
         list.print();
         list.add(t5);
+        list.print();
+
+        // out of order test: trips ending on the same date stay in the order they were added
+        TripList ties = new TripList();
+        ties.add(new Trip(new Booking(d1, d5, Employee.KAUR, new Vehicle("T1", d1, Make.FORD, 0)), 10, 20));
+        ties.add(new Trip(new Booking(d1, d8, Employee.KAUR, new Vehicle("T2", d1, Make.FORD, 0)), 10, 20));
+        ties.add(new Trip(new Booking(d1, d5, Employee.KAUR, new Vehicle("T3", d1, Make.FORD, 0)), 10, 20));
+        ties.add(new Trip(new Booking(d1, d2, Employee.KAUR, new Vehicle("T4", d1, Make.FORD, 0)), 10, 20));
+        ties.add(new Trip(new Booking(d1, d2, Employee.KAUR, new Vehicle("T5", d1, Make.FORD, 0)), 10, 20));
+        ties.print(); // T4, T5, T1, T3, T2
     }
 
 }
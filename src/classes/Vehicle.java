@@ -101,6 +101,15 @@ public class Vehicle implements Comparable<Vehicle> {
         return false;
     }
 
+    /**
+     * Returns a hash code for this vehicle, consistent with equals().
+     * @return the hash code of the license plate
+     */
+    @Override
+    public int hashCode() {
+        return plate == null ? 0 : plate.hashCode();
+    }
+
     /**
     * a.compareTo(b); return -1, 0, 1
     * @param other the other vehicle that is being compared to this vehicle.
@@ -127,7 +136,18 @@ public class Vehicle implements Comparable<Vehicle> {
      */
     @Override
     public String toString() {
-        return plate + ":" + make + ":" + obtained + " [mileage:" + mileage + "]";
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    /**
+     * Appends the textual representation of the Vehicle object to a buffer,
+     * without building an intermediate string.
+     * @param out the buffer to append to
+     * @return the buffer, so more can be appended to it
+     */
+    public StringBuilder appendTo(StringBuilder out) {
+        out.append(plate).append(':').append(make).append(':');
+        return obtained.appendTo(out).append(" [mileage:").append(mileage).append(']');
     }
 
     public static void main(String[] args) {
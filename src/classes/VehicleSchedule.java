@@ -0,0 +1,144 @@
+package classes;
+import java.util.Comparator;
+import java.util.TreeSet;
+
+/**
+ * This class implements the schedule of a single vehicle.
+ * Includes an interval tree of the vehicle's bookings and a day-occupancy
+ * calendar of the same bookings for the near future. Availability checks
+ * whose range fits the calendar window are answered from the calendar with a
+ * few word tests, and all other checks fall back to the interval tree.
+ * The bookings are also kept ordered by ending date, so the booking that
+ * ends first is found without a scan when the vehicle is returned.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class VehicleSchedule {
+    private IntervalTree bookings;
+    private OccupancyCalendar calendar;
+    private int inverted; //bookings ending before they begin, which the calendar cannot hold
+    private TreeSet<Booking> byEnd; //bookings ordered by ending date, then beginning date
+
+    // Define the order of bookings of one vehicle by ending date, then beginning date
+    private static final Comparator<Booking> END_ORDER =
+            Comparator.comparingInt((Booking booking) -> booking.getEnd().toPackedInt())
+                    .thenComparingInt(booking -> booking.getBegin().toPackedInt());
+
+    /**
+     * Default constructor to create an empty VehicleSchedule object.
+     */
+    public VehicleSchedule() {
+        this.bookings = new IntervalTree();
+        this.calendar = new OccupancyCalendar();
+        this.inverted = 0;
+        this.byEnd = new TreeSet<>(END_ORDER);
+    }
+
+    /**
+     * Checks whether the vehicle has no bookings.
+     *
+     * @return true if there are no bookings, false otherwise
+     */
+    public boolean isEmpty() {
+        return this.bookings.isEmpty();
+    }
+
+    /**
+     * Getter for the interval tree of the vehicle's bookings.
+     *
+     * @return the interval tree of bookings
+     */
+    public IntervalTree getBookings() {
+        return this.bookings;
+    }
+
+    /**
+     * Getter for the booking that ends first.
+     *
+     * @return the booking with the earliest ending date, or null if there is none
+     */
+    public Booking getEarliestBooking() {
+        return this.byEnd.isEmpty() ? null : this.byEnd.first();
+    }
+
+    /**
+     * Adds a booking to the schedule, sliding the calendar forward if the
+     * booking ends past the current window.
+     *
+     * @param booking the booking to be added
+     */
+    public void add(Booking booking) {
+        this.bookings.insert(booking);
+        this.byEnd.add(booking);
+
+        int from = booking.getBegin().toEpochDay();
+        int to = booking.getEnd().toEpochDay();
+        if (to < from) {
+            this.inverted++;
+            return;
+        }
+        if (!this.calendar.isAnchored()) {
+            this.calendar.anchor(from);
+        }
+        if (this.calendar.slideTo(to)) {
+            this.bookings.forEach(this::mark); //refill the words that came into the window
+        }
+        else {
+            this.calendar.set(from, to);
+        }
+    }
+
+    /**
+     * Removes a booking from the schedule.
+     * Days shared with another booking stay marked in the calendar.
+     *
+     * @param booking the booking to be removed
+     * @return true if the booking was removed, false if it was not found
+     */
+    public boolean remove(Booking booking) {
+        if (!this.bookings.remove(booking)) {
+            return false;
+        }
+        this.byEnd.remove(booking);
+
+        int from = booking.getBegin().toEpochDay();
+        int to = booking.getEnd().toEpochDay();
+        if (to < from) {
+            this.inverted--;
+            return true;
+        }
+        this.calendar.clear(from, to);
+        this.bookings.forEachOverlap(booking.getBegin(), booking.getEnd(), this::mark);
+        return true;
+    }
+
+    /**
+     * Checks if the vehicle is free for the whole of a date range.
+     * The vehicle is unavailable if any booking overlaps the range.
+     *
+     * @param begin proposed date for start of booking
+     * @param end proposed date for ending of booking
+     * @return true if available, false if unavailable
+     */
+    public boolean isAvailable(Date begin, Date end) {
+        int from = begin.toEpochDay();
+        int to = end.toEpochDay();
+        if (this.inverted == 0 && this.calendar.covers(from, to)) {
+            return this.calendar.isFree(from, to);
+        }
+        return !this.bookings.overlaps(begin, end);
+    }
+
+    /**
+     * Helper method that marks the days of a booking in the calendar.
+     *
+     * @param booking the booking whose days are marked
+     */
+    private void mark(Booking booking) {
+        int from = booking.getBegin().toEpochDay();
+        int to = booking.getEnd().toEpochDay();
+        if (from <= to) {
+            this.calendar.set(from, to);
+        }
+    }
+}
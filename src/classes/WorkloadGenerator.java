@@ -0,0 +1,481 @@
+package classes;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Generates streams of commands that look like a day of real use: a fleet is
+ * added first, then vehicles are booked, bookings are canceled, vehicles are
+ * returned, searched for, added, deleted, and printed, in a configurable mix.
+ * The generator keeps its own model of the vehicles and bookings it has made,
+ * so most commands are ones the system accepts: bookings do not overlap
+ * another booking of the vehicle or of the employee, and cancellations and
+ * returns name real bookings. A configurable share of the bookings is made
+ * to conflict on purpose, with a vehicle or an employee already booked.
+ * Booking dates fall within a horizon of days from today, skewed toward the
+ * near future as configured. Given the same seed and settings, the same
+ * commands are generated.
+ *
+ * @author Jai Patel, Aaman Gafur
+ */
+public class WorkloadGenerator {
+    /**
+     * A booking the generator has made, as the model sees it.
+     */
+    private static class Planned {
+        private final int vehicle; //index of the vehicle in plates
+        private final int begin; //days after today
+        private final int end; //days after today
+        private final int employee; //index in Employee.values()
+        private int index; //position in the list of all planned bookings
+
+        /**
+         * Creates a planned booking.
+         * @param vehicle index of the vehicle
+         * @param begin first day, in days after today
+         * @param end last day, in days after today
+         * @param employee index of the employee
+         */
+        private Planned(int vehicle, int begin, int end, int employee) {
+            this.vehicle = vehicle;
+            this.begin = begin;
+            this.end = end;
+            this.employee = employee;
+        }
+
+        /**
+         * Checks whether this booking shares a day with a range of days.
+         * @param first the first day of the range
+         * @param last the last day of the range
+         * @return true if they overlap, false otherwise
+         */
+        private boolean overlaps(int first, int last) {
+            return this.begin <= last && first <= this.end;
+        }
+    }
+
+    // Define constants for the kinds of commands in the mix
+    private static final int ADD = 0, DELETE = 1, BOOK = 2, CANCEL = 3, RETURN = 4, FIND = 5, PRINT = 6;
+    private static final int KINDS = 7;
+
+    // Define constants for the default settings
+    private static final int[] DEFAULT_MIX = {2, 1, 50, 15, 20, 10, 2};
+    private static final int DEFAULT_FLEET = 1000;
+    private static final int DEFAULT_HORIZON = 90;
+    private static final int MAX_LENGTH = 7; //bookings last 1 to 7 days
+    private static final int TRIES = 8; //attempts to find a booking free of conflicts
+
+    private static final Employee[] EMPLOYEES = Employee.values();
+    private static final Make[] MAKES = Make.values();
+    private static final String[] PRINTS = {"PF", "PR", "PD", "PT"};
+
+    private final Random random;
+    private final int today; //epoch day the bookings are made relative to
+    private int[] mix; //weight of each kind of command
+    private int fleetSize; //vehicles added before any other command
+    private int employeeCount; //employees that make bookings, from 1 to 8
+    private int horizon; //bookings begin within this many days of today
+    private double skew; //1 for uniform begin days, higher to favor the near future
+    private double conflictRate; //share of bookings made to conflict on purpose
+
+    private String[] dayText; //M/D/YYYY of each day from today on
+    private final ArrayList<String> plates; //every vehicle added, deleted ones included
+    private final ArrayList<Integer> mileages; //current mileage of each vehicle
+    private final ArrayList<Integer> active; //vehicles still in the fleet
+    private final HashMap<Integer, ArrayList<Planned>> byVehicle; //vehicle -> its bookings
+    private final ArrayList<Planned> planned; //every booking not yet canceled or returned
+    private boolean[][] employeeDays; //[employee][day] true when booked
+    private int added; //vehicles added so far
+
+    /**
+     * Creates a generator with the default settings: a fleet of 1000, all
+     * 8 employees, a 90 day horizon with uniform begin days, and no bookings
+     * made to conflict on purpose.
+     *
+     * @param seed the seed of the random numbers
+     * @param today the day bookings are made relative to, which should be the
+     *              day the clock installed in Date reports when the commands run
+     */
+    public WorkloadGenerator(long seed, Date today) {
+        this.random = new Random(seed);
+        this.today = today.toEpochDay();
+        this.mix = DEFAULT_MIX.clone();
+        this.fleetSize = DEFAULT_FLEET;
+        this.employeeCount = EMPLOYEES.length;
+        this.horizon = DEFAULT_HORIZON;
+        this.skew = 1.0;
+        this.conflictRate = 0.0;
+        this.plates = new ArrayList<>();
+        this.mileages = new ArrayList<>();
+        this.active = new ArrayList<>();
+        this.byVehicle = new HashMap<>();
+        this.planned = new ArrayList<>();
+        this.added = 0;
+        setHorizon(DEFAULT_HORIZON);
+    }
+
+    /**
+     * Sets the weights of the kinds of commands generated once the fleet has
+     * been added. A weight of 0 leaves that kind out.
+     *
+     * @param add weight of add vehicle commands
+     * @param delete weight of delete vehicle commands
+     * @param book weight of book commands
+     * @param cancel weight of cancel commands
+     * @param ret weight of return commands
+     * @param find weight of find available commands
+     * @param print weight of PF, PR, PD, and PT commands
+     */
+    public void setMix(int add, int delete, int book, int cancel, int ret, int find, int print) {
+        this.mix = new int[] {add, delete, book, cancel, ret, find, print};
+    }
+
+    /**
+     * Sets the number of vehicles added before any other command.
+     *
+     * @param fleetSize the number of vehicles, at least 1
+     */
+    public void setFleetSize(int fleetSize) {
+        this.fleetSize = Math.max(1, fleetSize);
+    }
+
+    /**
+     * Sets how many of the employees make bookings.
+     *
+     * @param employeeCount the number of employees, from 1 to 8
+     */
+    public void setEmployeeCount(int employeeCount) {
+        this.employeeCount = Math.max(1, Math.min(employeeCount, EMPLOYEES.length));
+    }
+
+    /**
+     * Sets how many days ahead bookings may begin. The system rejects
+     * bookings that begin more than 3 months ahead, so a horizon over about
+     * 90 days makes some bookings fail for that.
+     *
+     * @param horizon the number of days, at least 1
+     */
+    public void setHorizon(int horizon) {
+        this.horizon = Math.max(1, horizon);
+        this.dayText = new String[this.horizon + MAX_LENGTH];
+        for (int day = 0; day < this.dayText.length; day++) {
+            this.dayText[day] = Date.ofEpochDay(this.today + day).toString();
+        }
+        this.employeeDays = new boolean[EMPLOYEES.length][this.dayText.length];
+        for (Planned booking : this.planned) {
+            markEmployee(booking, true);
+        }
+    }
+
+    /**
+     * Sets how strongly begin days favor the near future. A begin day is the
+     * horizon times a uniform random number raised to this power.
+     *
+     * @param skew 1 for uniform begin days, higher to favor the near future
+     */
+    public void setDateSkew(double skew) {
+        this.skew = Math.max(0.01, skew);
+    }
+
+    /**
+     * Sets the share of bookings made to conflict on purpose, half with a
+     * booking of the same vehicle and half with one of the same employee.
+     *
+     * @param conflictRate the share, from 0 to 1
+     */
+    public void setConflictRate(double conflictRate) {
+        this.conflictRate = Math.max(0.0, Math.min(conflictRate, 1.0));
+    }
+
+    /**
+     * Generates the next command.
+     *
+     * @return the command line, without a line ending
+     */
+    public String next() {
+        if (this.added < this.fleetSize) {
+            return add();
+        }
+        int total = 0;
+        for (int weight : this.mix) {
+            total += weight;
+        }
+        int pick = this.random.nextInt(Math.max(1, total));
+        int kind = 0;
+        while (kind < KINDS - 1 && pick >= this.mix[kind]) {
+            pick -= this.mix[kind];
+            kind++;
+        }
+        switch (kind) {
+            case ADD: return add();
+            case DELETE: return delete();
+            case BOOK: return book();
+            case CANCEL: return cancel();
+            case RETURN: return ret();
+            case FIND: return find();
+            default: return PRINTS[this.random.nextInt(PRINTS.length)];
+        }
+    }
+
+    /**
+     * Generates a number of commands.
+     *
+     * @param count the number of commands
+     * @return the command lines, without line endings
+     */
+    public String[] generate(int count) {
+        String[] commands = new String[count];
+        for (int i = 0; i < count; i++) {
+            commands[i] = next();
+        }
+        return commands;
+    }
+
+    /**
+     * Writes a number of commands to a file, one per line, ending with Q so
+     * the file can be run by RunProgram.
+     *
+     * @param path the file to write
+     * @param count the number of commands before the Q
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, Charset.defaultCharset())) {
+            for (int i = 0; i < count; i++) {
+                writer.write(next());
+                writer.newLine();
+            }
+            writer.write("Q");
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Picks a begin day within the horizon, skewed as configured.
+     *
+     * @return the begin day, in days after today
+     */
+    private int beginDay() {
+        return Math.min(this.horizon - 1, (int) (this.horizon * Math.pow(this.random.nextDouble(), this.skew)));
+    }
+
+    /**
+     * Generates a command adding a new vehicle, obtained in the last few years.
+     *
+     * @return the command line
+     */
+    private String add() {
+        int vehicle = this.plates.size();
+        String plate = "W" + Integer.toString(vehicle, 36).toUpperCase();
+        int mileage = 1 + this.random.nextInt(100_000);
+        this.plates.add(plate);
+        this.mileages.add(mileage);
+        this.active.add(vehicle);
+        this.added++;
+        Date obtained = Date.ofEpochDay(this.today - 1 - this.random.nextInt(2000));
+        return "A " + plate + " " + obtained + " " + MAKES[this.random.nextInt(MAKES.length)] + " " + mileage;
+    }
+
+    /**
+     * Generates a command deleting a vehicle, which is rejected if the
+     * vehicle picked still has bookings.
+     *
+     * @return the command line
+     */
+    private String delete() {
+        if (this.active.size() <= 1) {
+            return add();
+        }
+        int at = this.random.nextInt(this.active.size());
+        int vehicle = this.active.get(at);
+        if (!this.byVehicle.containsKey(vehicle)) {
+            this.active.set(at, this.active.get(this.active.size() - 1));
+            this.active.remove(this.active.size() - 1);
+        }
+        return "D " + this.plates.get(vehicle);
+    }
+
+    /**
+     * Generates a booking command: one free of conflicts if one can be found,
+     * or, as often as the conflict rate says, one that conflicts on purpose.
+     *
+     * @return the command line
+     */
+    private String book() {
+        if (!this.planned.isEmpty() && this.random.nextDouble() < this.conflictRate) {
+            Planned other = this.planned.get(this.random.nextInt(this.planned.size()));
+            if (this.random.nextBoolean()) {
+                // same vehicle, another employee, overlapping days
+                int employee = (other.employee + 1) % this.employeeCount;
+                return bookText(other.begin, other.end, other.vehicle, employee);
+            }
+            // same employee, another vehicle, overlapping days
+            int vehicle = this.active.get(this.random.nextInt(this.active.size()));
+            return bookText(other.begin, other.end, vehicle, other.employee);
+        }
+
+        int begin = 0, end = 0, vehicle = 0, employee = 0;
+        for (int attempt = 0; attempt < TRIES; attempt++) {
+            begin = beginDay();
+            end = begin + this.random.nextInt(MAX_LENGTH);
+            vehicle = this.active.get(this.random.nextInt(this.active.size()));
+            employee = this.random.nextInt(this.employeeCount);
+            if (isFree(vehicle, employee, begin, end)) {
+                Planned booking = new Planned(vehicle, begin, end, employee);
+                booking.index = this.planned.size();
+                this.planned.add(booking);
+                this.byVehicle.computeIfAbsent(vehicle, key -> new ArrayList<>()).add(booking);
+                markEmployee(booking, true);
+                break;
+            }
+        }
+        return bookText(begin, end, vehicle, employee);
+    }
+
+    /**
+     * Checks the model for a booking of the vehicle or the employee that
+     * overlaps a range of days.
+     *
+     * @param vehicle index of the vehicle
+     * @param employee index of the employee
+     * @param begin the first day
+     * @param end the last day
+     * @return true if neither is booked during the range, false otherwise
+     */
+    private boolean isFree(int vehicle, int employee, int begin, int end) {
+        for (int day = begin; day <= end; day++) {
+            if (this.employeeDays[employee][day]) {
+                return false;
+            }
+        }
+        ArrayList<Planned> bookings = this.byVehicle.get(vehicle);
+        if (bookings != null) {
+            for (Planned booking : bookings) {
+                if (booking.overlaps(begin, end)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks or clears the days of a booking in its employee's calendar.
+     *
+     * @param booking the booking
+     * @param isBooked true to mark the days, false to clear them
+     */
+    private void markEmployee(Planned booking, boolean isBooked) {
+        boolean[] days = this.employeeDays[booking.employee];
+        for (int day = booking.begin; day <= booking.end && day < days.length; day++) {
+            days[day] = isBooked;
+        }
+    }
+
+    /**
+     * Removes a booking from the model.
+     *
+     * @param booking the booking to remove
+     */
+    private void forget(Planned booking) {
+        Planned last = this.planned.remove(this.planned.size() - 1);
+        if (last != booking) {
+            this.planned.set(booking.index, last);
+            last.index = booking.index;
+        }
+        ArrayList<Planned> bookings = this.byVehicle.get(booking.vehicle);
+        bookings.remove(booking);
+        if (bookings.isEmpty()) {
+            this.byVehicle.remove(booking.vehicle);
+        }
+        markEmployee(booking, false);
+    }
+
+    /**
+     * Builds the text of a booking command.
+     *
+     * @param begin the first day
+     * @param end the last day
+     * @param vehicle index of the vehicle
+     * @param employee index of the employee
+     * @return the command line
+     */
+    private String bookText(int begin, int end, int vehicle, int employee) {
+        return "B " + this.dayText[begin] + " " + this.dayText[end] + " " + this.plates.get(vehicle) + " "
+                + EMPLOYEES[employee];
+    }
+
+    /**
+     * Generates a command canceling a booking in the model.
+     *
+     * @return the command line, a booking command if there is nothing to cancel
+     */
+    private String cancel() {
+        if (this.planned.isEmpty()) {
+            return book();
+        }
+        Planned booking = this.planned.get(this.random.nextInt(this.planned.size()));
+        forget(booking);
+        return "C " + this.dayText[booking.begin] + " " + this.dayText[booking.end] + " "
+                + this.plates.get(booking.vehicle);
+    }
+
+    /**
+     * Generates a command returning a vehicle from the booking of it that
+     * ends first, as the system expects.
+     *
+     * @return the command line, a booking command if nothing is booked
+     */
+    private String ret() {
+        if (this.planned.isEmpty()) {
+            return book();
+        }
+        int vehicle = this.planned.get(this.random.nextInt(this.planned.size())).vehicle;
+        Planned earliest = null;
+        for (Planned booking : this.byVehicle.get(vehicle)) {
+            if (earliest == null || booking.end < earliest.end
+                    || (booking.end == earliest.end && booking.begin < earliest.begin)) {
+                earliest = booking;
+            }
+        }
+        forget(earliest);
+        int mileage = this.mileages.get(vehicle) + 1 + this.random.nextInt(1000);
+        this.mileages.set(vehicle, mileage);
+        return "R " + this.dayText[earliest.end] + " " + this.plates.get(vehicle) + " " + mileage;
+    }
+
+    /**
+     * Generates a command finding the vehicles available in a range of days,
+     * for one make half of the time.
+     *
+     * @return the command line
+     */
+    private String find() {
+        int begin = beginDay();
+        int end = begin + this.random.nextInt(MAX_LENGTH);
+        String command = "F " + this.dayText[begin] + " " + this.dayText[end];
+        if (this.random.nextBoolean()) {
+            command += " " + MAKES[this.random.nextInt(MAKES.length)];
+        }
+        return command;
+    }
+
+    public static void main(String[] args) throws IOException {
+        WorkloadGenerator generator = new WorkloadGenerator(1, Date.ofEpochDay(Date.getClock().today()));
+        if (args.length > 1) {
+            // writes a command file for RunProgram, such as: WorkloadGenerator day.txt 1000000
+            generator.write(Path.of(args[0]), Integer.parseInt(args[1]));
+            return;
+        }
+        generator.setFleetSize(3);
+        generator.setConflictRate(0.2);
+        for (String command : generator.generate(20)) {
+            System.out.println(command);
+        }
+    }
+}